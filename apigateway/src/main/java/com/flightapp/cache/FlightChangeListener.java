@@ -0,0 +1,37 @@
+package com.flightapp.cache;
+
+import com.flightapp.dto.FlightChangedMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops cached responses for flights that flightservice reports changed.
+ * Every gateway instance has its own consumer group so each one sees every
+ * change. The group is named after a stable instance id
+ * ({@code gateway.response-cache.instance-id}, else the host name), so a
+ * restarted instance rejoins its group rather than leaving one behind.
+ */
+@Component
+public class FlightChangeListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlightChangeListener.class);
+
+    private final ResponseCache cache;
+
+    public FlightChangeListener(ResponseCache cache) {
+        this.cache = cache;
+    }
+
+    @KafkaListener(topics = "${flight.events.changed-topic:flight.changed}",
+                   groupId = "apigateway-cache-${gateway.response-cache.instance-id:${HOSTNAME:local}}")
+    public void flightChanged(FlightChangedMessage msg) {
+        if (msg == null || msg.getFlightId() == null) return;
+        logger.debug("Invalidating cached responses for flight {}", msg.getFlightId());
+        cache.invalidate(ResponseCacheFilter.flightTag(msg.getFlightId()));
+        if (msg.getFromCode() != null && msg.getToCode() != null) {
+            cache.invalidate(ResponseCacheFilter.routeTag(msg.getFromCode(), msg.getToCode()));
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.flightapp.cache;
+
+import com.flightapp.filter.CapturedResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory LRU store of downstream GET responses, bounded by entry count
+ * and total body bytes. Every entry carries a tag (a flight or a route) so
+ * a flight change drops exactly the responses it affects. As in
+ * flightservice's search cache, each tag has a generation bumped on
+ * invalidation, so a response fetched before a change is never stored
+ * after it.
+ */
+@Component
+public class ResponseCache {
+
+    public record Cached(CapturedResponse response, String etag, long expiresAt) {}
+
+    private record Entry(Cached cached, String tag) {}
+
+    private final int maxEntries;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Set<String>> keysByTag = new HashMap<>();
+    private final Map<String, Long> generations = new HashMap<>();
+    private long bytes;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private final Counter invalidations;
+
+    public ResponseCache(MeterRegistry registry,
+                         @Value("${gateway.response-cache.max-entries:10000}") int maxEntries,
+                         @Value("${gateway.response-cache.max-bytes:67108864}") long maxBytes) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+
+        this.hits = Counter.builder("gateway.response.cache.requests").tag("result", "hit").register(registry);
+        this.misses = Counter.builder("gateway.response.cache.requests").tag("result", "miss").register(registry);
+        this.evictions = Counter.builder("gateway.response.cache.evictions").register(registry);
+        this.invalidations = Counter.builder("gateway.response.cache.invalidations").register(registry);
+        Gauge.builder("gateway.response.cache.size", this, ResponseCache::size).register(registry);
+        Gauge.builder("gateway.response.cache.bytes", this, ResponseCache::bytes).register(registry);
+    }
+
+    public synchronized Cached get(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.cached().expiresAt() > System.currentTimeMillis()) {
+            hits.increment();
+            return entry.cached();
+        }
+        if (entry != null) {
+            unlink(key);
+        }
+        misses.increment();
+        return null;
+    }
+
+    /** Read before fetching and pass to {@link #put}, which skips the store if the tag changed meanwhile. */
+    public synchronized long generation(String tag) {
+        return generations.getOrDefault(tag, 0L);
+    }
+
+    /**
+     * @return the stored entry, or null if the tag was invalidated since {@code generation} was read
+     */
+    public Cached put(String key, String tag, long generation, CapturedResponse response, long ttlMillis) {
+        Cached cached = new Cached(response, etag(response.body()), System.currentTimeMillis() + ttlMillis);
+        synchronized (this) {
+            if (generations.getOrDefault(tag, 0L) != generation) {
+                return null;
+            }
+            if (entries.containsKey(key)) {
+                unlink(key);
+            }
+            entries.put(key, new Entry(cached, tag));
+            keysByTag.computeIfAbsent(tag, t -> new HashSet<>()).add(key);
+            bytes += response.body().length;
+            evictOverflow();
+        }
+        return cached;
+    }
+
+    public synchronized void invalidate(String tag) {
+        generations.merge(tag, 1L, Long::sum);
+        Set<String> keys = keysByTag.remove(tag);
+        if (keys != null) {
+            for (String key : keys) {
+                Entry removed = entries.remove(key);
+                if (removed != null) bytes -= removed.cached().response().body().length;
+            }
+            invalidations.increment(keys.size());
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long bytes() {
+        return bytes;
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || bytes > maxBytes) && eldest.hasNext()) {
+            Map.Entry<String, Entry> e = eldest.next();
+            eldest.remove();
+            bytes -= e.getValue().cached().response().body().length;
+            removeFromTag(e.getKey(), e.getValue().tag());
+            evictions.increment();
+        }
+    }
+
+    private void unlink(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            bytes -= removed.cached().response().body().length;
+            removeFromTag(key, removed.tag());
+        }
+    }
+
+    private void removeFromTag(String key, String tag) {
+        Set<String> keys = keysByTag.get(tag);
+        if (keys != null && keys.remove(key) && keys.isEmpty()) {
+            keysByTag.remove(tag);
+        }
+    }
+
+    // Strong validator derived from the body, so every gateway instance agrees on it
+    private static String etag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return '"' + Base64.getUrlEncoder().withoutPadding().encodeToString(digest).substring(0, 22) + '"';
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.flightapp.cache;
+
+import com.flightapp.filter.CapturedResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Serves flight search ({@code GET /api/flights?from=..&to=..}) and flight
+ * details ({@code GET /api/flights/{id}}, {@code /booked-seats}) from
+ * {@link ResponseCache} for a few seconds, with an ETag so clients that
+ * already hold the response get 304 Not Modified. Entries are dropped as
+ * soon as flightservice reports a change to the flight or its route.
+ */
+@Component
+public class ResponseCacheFilter implements GatewayFilter {
+
+    private static final String FLIGHTS_PATH = "/api/flights";
+
+    private record Target(String tag, long ttlMillis) {}
+
+    private final ResponseCache cache;
+    private final long searchTtlMillis;
+    private final long detailsTtlMillis;
+    private final int maxBodyBytes;
+
+    public ResponseCacheFilter(ResponseCache cache,
+                               @Value("${gateway.response-cache.search-ttl-ms:5000}") long searchTtlMillis,
+                               @Value("${gateway.response-cache.details-ttl-ms:10000}") long detailsTtlMillis,
+                               @Value("${gateway.response-cache.max-body-bytes:1048576}") int maxBodyBytes) {
+        this.cache = cache;
+        this.searchTtlMillis = searchTtlMillis;
+        this.detailsTtlMillis = detailsTtlMillis;
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    public static String routeTag(String fromCode, String toCode) {
+        return "route:" + fromCode + "|" + toCode;
+    }
+
+    public static String flightTag(String flightId) {
+        return "flight:" + flightId;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        Target target = request.getMethod() == HttpMethod.GET ? targetOf(request) : null;
+        if (target == null) {
+            return chain.filter(exchange);
+        }
+
+        String key = request.getURI().getRawPath() + '?' + request.getURI().getRawQuery()
+                + '|' + request.getHeaders().getFirst(HttpHeaders.ACCEPT);
+        ResponseCache.Cached hit = cache.get(key);
+        if (hit != null) {
+            return respondFromCache(exchange, hit);
+        }
+
+        long generation = cache.generation(target.tag());
+        AtomicReference<ResponseCache.Cached> stored = new AtomicReference<>();
+        ServerHttpResponse capturing = CapturedResponse.capturing(exchange.getResponse(), maxBodyBytes, captured -> {
+            if (isCacheable(captured)) {
+                stored.set(cache.put(key, target.tag(), generation, captured, target.ttlMillis()));
+            }
+        });
+        // The body is captured just before the response commits, so the ETag can still be added
+        exchange.getResponse().beforeCommit(() -> {
+            ResponseCache.Cached s = stored.get();
+            if (s != null) {
+                exchange.getResponse().getHeaders().setETag(s.etag());
+            }
+            return Mono.empty();
+        });
+        return chain.filter(exchange.mutate().response(capturing).build());
+    }
+
+    private static Mono<Void> respondFromCache(ServerWebExchange exchange, ResponseCache.Cached hit) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.getHeaders().setETag(hit.etag());
+
+        List<String> ifNoneMatch = exchange.getRequest().getHeaders().getIfNoneMatch();
+        if (ifNoneMatch.contains(hit.etag()) || ifNoneMatch.contains("*")) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+        return hit.response().writeTo(response);
+    }
+
+    private static boolean isCacheable(CapturedResponse captured) {
+        if (captured.status().value() != HttpStatus.OK.value()) {
+            return false;
+        }
+        String cacheControl = captured.headers().getCacheControl();
+        return cacheControl == null
+                || !(cacheControl.contains("no-store") || cacheControl.contains("private"));
+    }
+
+    private Target targetOf(ServerHttpRequest request) {
+        if (request.getHeaders().getAccept().stream().anyMatch(MediaType.APPLICATION_NDJSON::equalsTypeAndSubtype)) {
+            return null;
+        }
+
+        String path = request.getURI().getPath();
+        if (path.equals(FLIGHTS_PATH)) {
+            String from = request.getQueryParams().getFirst("from");
+            String to = request.getQueryParams().getFirst("to");
+            if (from == null || to == null) return null;
+            return new Target(routeTag(normalize(from), normalize(to)), searchTtlMillis);
+        }
+
+        if (path.startsWith(FLIGHTS_PATH + "/")) {
+            String[] rest = path.substring(FLIGHTS_PATH.length() + 1).split("/");
+            boolean details = rest.length == 1 || (rest.length == 2 && rest[1].equals("booked-seats"));
+            if (details && !rest[0].isEmpty()) {
+                return new Target(flightTag(rest[0]), detailsTtlMillis);
+            }
+        }
+        return null;
+    }
+
+    // Same normalization flightservice uses for route codes
+    private static String normalize(String place) {
+        return place.trim().toUpperCase(Locale.ROOT);
+    }
+}
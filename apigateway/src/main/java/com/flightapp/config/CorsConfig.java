@@ -2,7 +2,9 @@ package com.flightapp.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.web.cors.reactive.CorsConfigurationSource;
+import org.springframework.web.cors.reactive.CorsWebFilter;
 import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
 import org.springframework.web.cors.CorsConfiguration;
 
@@ -11,6 +13,9 @@ import java.util.List;
 @Configuration
 public class CorsConfig {
 
+    // Ahead of BearerPrecheckWebFilter (-200) and Spring Security (-100)
+    public static final int CORS_FILTER_ORDER = -300;
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration config = new CorsConfiguration();
@@ -19,10 +24,25 @@ public class CorsConfig {
         config.setAllowedOriginPatterns(List.of("http://localhost:4200"));
         config.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         config.setAllowedHeaders(List.of("*"));
+        // Continuation token for paginated flight search, validator for cached flight responses,
+        // and whether a booking response is a replay of an earlier Idempotency-Key request
+        config.setExposedHeaders(List.of("X-Next-Page-Token", "ETag", "Idempotent-Replayed"));
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", config);
 
         return source;
     }
+
+    /**
+     * Applies CORS before any other web filter, so responses written ahead of
+     * the security chain (BearerPrecheckWebFilter's 401s) are readable by the
+     * SPA too. The security chain's own CORS step sees the headers already
+     * present and leaves them alone.
+     */
+    @Bean
+    @Order(CORS_FILTER_ORDER)
+    public CorsWebFilter corsWebFilter(CorsConfigurationSource corsConfigurationSource) {
+        return new CorsWebFilter(corsConfigurationSource);
+    }
 }
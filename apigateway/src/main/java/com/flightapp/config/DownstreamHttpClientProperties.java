@@ -0,0 +1,88 @@
+package com.flightapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Connection pool and timeout settings for calls from the gateway to
+ * downstream services. {@code defaults} apply to every route; entries under
+ * {@code routes.<routeId>} override individual values for one route, e.g.
+ * {@code gateway.http-client.routes.bookingservice.response-timeout=5s}.
+ */
+@ConfigurationProperties(prefix = "gateway.http-client")
+public class DownstreamHttpClientProperties {
+
+    public static class Pool {
+        private Integer maxConnections;
+        private Integer pendingAcquireMaxCount;
+        private Duration pendingAcquireTimeout;
+        // Keep below the downstream keep-alive timeout (Tomcat: 20s) so a closed socket is never reused
+        private Duration maxIdleTime;
+        private Duration maxLifeTime;
+        private Duration evictionInterval;
+        private Duration connectTimeout;
+        private Duration responseTimeout;
+        // Try HTTP/2 over cleartext first, falling back to HTTP/1.1 keep-alive
+        private Boolean h2c;
+
+        public Integer getMaxConnections() { return maxConnections; }
+        public void setMaxConnections(Integer maxConnections) { this.maxConnections = maxConnections; }
+        public Integer getPendingAcquireMaxCount() { return pendingAcquireMaxCount; }
+        public void setPendingAcquireMaxCount(Integer pendingAcquireMaxCount) { this.pendingAcquireMaxCount = pendingAcquireMaxCount; }
+        public Duration getPendingAcquireTimeout() { return pendingAcquireTimeout; }
+        public void setPendingAcquireTimeout(Duration pendingAcquireTimeout) { this.pendingAcquireTimeout = pendingAcquireTimeout; }
+        public Duration getMaxIdleTime() { return maxIdleTime; }
+        public void setMaxIdleTime(Duration maxIdleTime) { this.maxIdleTime = maxIdleTime; }
+        public Duration getMaxLifeTime() { return maxLifeTime; }
+        public void setMaxLifeTime(Duration maxLifeTime) { this.maxLifeTime = maxLifeTime; }
+        public Duration getEvictionInterval() { return evictionInterval; }
+        public void setEvictionInterval(Duration evictionInterval) { this.evictionInterval = evictionInterval; }
+        public Duration getConnectTimeout() { return connectTimeout; }
+        public void setConnectTimeout(Duration connectTimeout) { this.connectTimeout = connectTimeout; }
+        public Duration getResponseTimeout() { return responseTimeout; }
+        public void setResponseTimeout(Duration responseTimeout) { this.responseTimeout = responseTimeout; }
+        public Boolean getH2c() { return h2c; }
+        public void setH2c(Boolean h2c) { this.h2c = h2c; }
+
+        /** This pool's values, falling back to {@code base} for anything unset. */
+        Pool withDefaults(Pool base) {
+            Pool p = new Pool();
+            p.maxConnections = maxConnections != null ? maxConnections : base.maxConnections;
+            p.pendingAcquireMaxCount = pendingAcquireMaxCount != null ? pendingAcquireMaxCount : base.pendingAcquireMaxCount;
+            p.pendingAcquireTimeout = pendingAcquireTimeout != null ? pendingAcquireTimeout : base.pendingAcquireTimeout;
+            p.maxIdleTime = maxIdleTime != null ? maxIdleTime : base.maxIdleTime;
+            p.maxLifeTime = maxLifeTime != null ? maxLifeTime : base.maxLifeTime;
+            p.evictionInterval = evictionInterval != null ? evictionInterval : base.evictionInterval;
+            p.connectTimeout = connectTimeout != null ? connectTimeout : base.connectTimeout;
+            p.responseTimeout = responseTimeout != null ? responseTimeout : base.responseTimeout;
+            p.h2c = h2c != null ? h2c : base.h2c;
+            return p;
+        }
+    }
+
+    private final Pool defaults = new Pool();
+    private final Map<String, Pool> routes = new HashMap<>();
+
+    public DownstreamHttpClientProperties() {
+        defaults.setMaxConnections(200);
+        defaults.setPendingAcquireMaxCount(400);
+        defaults.setPendingAcquireTimeout(Duration.ofSeconds(2));
+        defaults.setMaxIdleTime(Duration.ofSeconds(15));
+        defaults.setMaxLifeTime(Duration.ofMinutes(5));
+        defaults.setEvictionInterval(Duration.ofSeconds(30));
+        defaults.setConnectTimeout(Duration.ofSeconds(2));
+        defaults.setResponseTimeout(Duration.ofSeconds(10));
+        defaults.setH2c(false);
+    }
+
+    public Pool getDefaults() { return defaults; }
+    public Map<String, Pool> getRoutes() { return routes; }
+
+    public Pool forRoute(String routeId) {
+        Pool route = routes.get(routeId);
+        return route == null ? defaults : route.withDefaults(defaults);
+    }
+}
@@ -1,29 +1,72 @@
 package com.flightapp.config;
 
+import com.flightapp.cache.ResponseCacheFilter;
 import com.flightapp.filter.JwtAuthFilter;
+import com.flightapp.filter.RequestCoalescingFilter;
+import com.flightapp.ratelimit.TokenBucketRateLimiter;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
 import org.springframework.cloud.gateway.route.RouteLocator;
 import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
+import org.springframework.cloud.gateway.support.RouteMetadataUtils;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+
+import java.util.Map;
 
 @Configuration
 public class GatewayConfig {
 
     private final JwtAuthFilter jwtAuthFilter;
+    private final ResponseCacheFilter responseCacheFilter;
+    private final RequestCoalescingFilter coalescingFilter;
+    private final TokenBucketRateLimiter flightSearchRateLimiter;
+    private final KeyResolver clientKeyResolver;
+    private final DownstreamHttpClientProperties httpClientProperties;
 
-    public GatewayConfig(JwtAuthFilter jwtAuthFilter) {
+    public GatewayConfig(JwtAuthFilter jwtAuthFilter,
+                         ResponseCacheFilter responseCacheFilter,
+                         RequestCoalescingFilter coalescingFilter,
+                         TokenBucketRateLimiter flightSearchRateLimiter,
+                         KeyResolver clientKeyResolver,
+                         DownstreamHttpClientProperties httpClientProperties) {
         this.jwtAuthFilter = jwtAuthFilter;
+        this.responseCacheFilter = responseCacheFilter;
+        this.coalescingFilter = coalescingFilter;
+        this.flightSearchRateLimiter = flightSearchRateLimiter;
+        this.clientKeyResolver = clientKeyResolver;
+        this.httpClientProperties = httpClientProperties;
     }
 
     @Bean
     public RouteLocator routes(RouteLocatorBuilder builder) {
         return builder.routes()
-                .route("authservice", r -> r.path("/auth/**").uri("lb://authservice"))
-                .route("flightservice", r -> r.path("/api/flights/**").uri("lb://flightservice"))
+                .route("authservice", r -> r.path("/auth/**").metadata(timeouts("authservice")).uri("lb://authservice"))
+                // Public, unauthenticated reads: throttle per client, answer repeats from the cache
+                // and collapse identical concurrent misses into one upstream call
+                .route("flightservice-read", r -> r.method(HttpMethod.GET).and().path("/api/flights/**")
+                        .filters(f -> f
+                                .requestRateLimiter(c -> c
+                                        .setRateLimiter(flightSearchRateLimiter)
+                                        .setKeyResolver(clientKeyResolver))
+                                .filter(responseCacheFilter)
+                                .filter(coalescingFilter))
+                        .metadata(timeouts("flightservice-read"))
+                        .uri("lb://flightservice"))
+                .route("flightservice", r -> r.path("/api/flights/**").metadata(timeouts("flightservice")).uri("lb://flightservice"))
                 .route("bookingservice", r -> r.path("/api/bookings/**")
                         .filters(f -> f.filter(jwtAuthFilter.apply(new JwtAuthFilter.Config())))
+                        .metadata(timeouts("bookingservice"))
                         .uri("lb://bookingservice"))
-                .route("emailservice", r -> r.path("/api/email/**").uri("lb://emailservice"))
+                .route("emailservice", r -> r.path("/api/email/**").metadata(timeouts("emailservice")).uri("lb://emailservice"))
                 .build();
     }
+
+    // Read by the routing filter; pools and the rest of the client settings are in PerRouteNettyRoutingFilter
+    private Map<String, Object> timeouts(String routeId) {
+        DownstreamHttpClientProperties.Pool pool = httpClientProperties.forRoute(routeId);
+        return Map.of(
+                RouteMetadataUtils.RESPONSE_TIMEOUT_ATTR, pool.getResponseTimeout().toMillis(),
+                RouteMetadataUtils.CONNECT_TIMEOUT_ATTR, pool.getConnectTimeout().toMillis());
+    }
 }
@@ -0,0 +1,37 @@
+package com.flightapp.config;
+
+import com.flightapp.routing.PerRouteNettyRoutingFilter;
+import com.flightapp.routing.RouteHttpClientFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.http.client.HttpClient;
+
+import java.util.List;
+
+// Replaces the stock NettyRoutingFilter, which is switched off in application.properties
+@Configuration
+@EnableConfigurationProperties(DownstreamHttpClientProperties.class)
+public class HttpClientConfig {
+
+    @Bean
+    public PerRouteNettyRoutingFilter perRouteRoutingFilter(HttpClient httpClient,
+                                                            ObjectProvider<List<HttpHeadersFilter>> headersFilters,
+                                                            HttpClientProperties properties,
+                                                            ServerProperties serverProperties,
+                                                            HttpClientSslConfigurer sslConfigurer,
+                                                            ObjectProvider<HttpClientCustomizer> customizers,
+                                                            DownstreamHttpClientProperties poolProperties) {
+        List<HttpClientCustomizer> customizerList = customizers.orderedStream().toList();
+        return new PerRouteNettyRoutingFilter(httpClient,
+                provider -> new RouteHttpClientFactory(provider, properties, serverProperties, sslConfigurer,
+                        customizerList).createInstance(),
+                headersFilters, properties, poolProperties);
+    }
+}
@@ -0,0 +1,16 @@
+package com.flightapp.config;
+
+import com.flightapp.security.IdentitySigner;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class IdentityConfig {
+
+    // Services check the signature with the same secret; defaults to the JWT secret they already share
+    @Bean
+    public IdentitySigner identitySigner(@Value("${app.identity.secret:${app.jwt.secret}}") String secret) {
+        return new IdentitySigner(secret);
+    }
+}
@@ -1,22 +1,57 @@
 package com.flightapp.config;
 
-import org.springframework.beans.factory.annotation.Value;
+import com.flightapp.security.AuthRejections;
+import com.flightapp.security.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtException;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtTimestampValidator;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
 import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
-import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
-
-import javax.crypto.SecretKey;
-import javax.crypto.spec.SecretKeySpec;
-import java.nio.charset.StandardCharsets;
+import reactor.core.publisher.Mono;
 
 @Configuration
 public class JwtDecoderConfig {
 
+    // The resource server is the only place a token is verified. It goes through JwtUtil
+    // so it shares that key, parser and verified-token cache; filters reuse the result.
+    // Malformed and expired tokens are already turned away by BearerPrecheckWebFilter.
+    // Cached tokens still get the exp/nbf check Nimbus would have applied, with the same skew.
     @Bean
-    public ReactiveJwtDecoder reactiveJwtDecoder(@Value("${app.jwt.secret}") String secret) {
-        // HS256 expects a secret key (HmacSHA256)
-        SecretKey key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
-        return NimbusReactiveJwtDecoder.withSecretKey(key).build();
+    public ReactiveJwtDecoder reactiveJwtDecoder(JwtUtil jwtUtil, AuthRejections rejections) {
+        OAuth2TokenValidator<Jwt> validator = new JwtTimestampValidator(jwtUtil.clockSkew());
+        return token -> Mono.fromCallable(() -> validated(toJwt(token, jwtUtil.verify(token)), validator))
+                .onErrorMap(e -> e instanceof JwtException || e instanceof IllegalArgumentException
+                                || e instanceof BadJwtException,
+                        e -> {
+                            rejections.count(AuthRejections.Reason.INVALID);
+                            return e instanceof BadJwtException bad ? bad : new BadJwtException(e.getMessage(), e);
+                        });
+    }
+
+    private static Jwt validated(Jwt jwt, OAuth2TokenValidator<Jwt> validator) {
+        OAuth2TokenValidatorResult result = validator.validate(jwt);
+        if (result.hasErrors()) {
+            throw new JwtValidationException(result.getErrors().iterator().next().getDescription(), result.getErrors());
+        }
+        return jwt;
+    }
+
+    private static Jwt toJwt(String token, Jws<Claims> jws) {
+        Claims claims = jws.getBody();
+        Jwt.Builder jwt = Jwt.withTokenValue(token)
+                .headers(h -> h.putAll(jws.getHeader()))
+                .claims(c -> c.putAll(claims));
+        // jjwt keeps these as epoch seconds; Jwt expects Instants
+        if (claims.getIssuedAt() != null) jwt.issuedAt(claims.getIssuedAt().toInstant());
+        if (claims.getExpiration() != null) jwt.expiresAt(claims.getExpiration().toInstant());
+        if (claims.getNotBefore() != null) jwt.notBefore(claims.getNotBefore().toInstant());
+        return jwt.build();
     }
 }
@@ -0,0 +1,50 @@
+package com.flightapp.config;
+
+import com.flightapp.ratelimit.InMemoryTokenBucketStore;
+import com.flightapp.ratelimit.TokenBucketRateLimiter;
+import com.flightapp.ratelimit.TokenBucketStore;
+import com.flightapp.security.VerifiedIdentity;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+
+@Configuration
+public class RateLimitConfig {
+
+    // Replace with a shared store by defining another TokenBucketStore bean
+    @Bean
+    @ConditionalOnMissingBean(TokenBucketStore.class)
+    public TokenBucketStore tokenBucketStore(@Value("${gateway.rate-limit.max-keys:100000}") int maxKeys) {
+        return new InMemoryTokenBucketStore(maxKeys);
+    }
+
+    @Bean
+    public TokenBucketRateLimiter flightSearchRateLimiter(
+            TokenBucketStore store,
+            MeterRegistry registry,
+            @Value("${gateway.rate-limit.flight-search.capacity:20}") long capacity,
+            @Value("${gateway.rate-limit.flight-search.refill-per-second:10}") double refillPerSecond) {
+        TokenBucketRateLimiter.Config config = new TokenBucketRateLimiter.Config()
+                .setCapacity(capacity)
+                .setRefillPerSecond(refillPerSecond);
+        return new TokenBucketRateLimiter(store, config, registry);
+    }
+
+    // Authenticated callers are limited per user, anonymous ones per client IP
+    @Bean
+    public KeyResolver clientKeyResolver() {
+        return exchange -> VerifiedIdentity.resolve(exchange)
+                .map(jwt -> "user:" + jwt.getSubject())
+                .switchIfEmpty(Mono.fromSupplier(() -> {
+                    InetSocketAddress remote = exchange.getRequest().getRemoteAddress();
+                    return "ip:" + (remote != null && remote.getAddress() != null
+                            ? remote.getAddress().getHostAddress() : "unknown");
+                }));
+    }
+}
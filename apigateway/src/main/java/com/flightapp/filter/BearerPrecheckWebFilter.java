@@ -0,0 +1,52 @@
+package com.flightapp.filter;
+
+import com.flightapp.security.AuthRejections;
+import com.flightapp.security.BearerTokenPrecheck;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Turns away bearer tokens that cannot possibly verify (wrong shape, or an
+ * {@code exp} already past) before the security chain runs, so junk traffic
+ * never reaches signature verification. The resource server would reject
+ * these with a 401 on every route anyway, public ones included; this only
+ * does it earlier and cheaper. Requests without a bearer token pass through.
+ */
+@Component
+public class BearerPrecheckWebFilter implements WebFilter, Ordered {
+
+    // After CorsConfig's CorsWebFilter (-300), so rejections carry CORS headers;
+    // before Spring Security's WebFilterChainProxy (-100)
+    static final int ORDER = -200;
+
+    private final AuthRejections rejections;
+    private final long clockSkewMillis;
+
+    public BearerPrecheckWebFilter(AuthRejections rejections,
+                                   @Value("${app.jwt.clock-skew-seconds:60}") long clockSkewSeconds) {
+        this.rejections = rejections;
+        this.clockSkewMillis = clockSkewSeconds * 1000;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String authorization = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        // Shifted back by the skew verification allows, so only tokens it would refuse are expired here
+        return switch (BearerTokenPrecheck.check(authorization, System.currentTimeMillis() - clockSkewMillis)) {
+            case ABSENT, PASSED -> chain.filter(exchange);
+            case MALFORMED -> rejections.reject(exchange, AuthRejections.Reason.MALFORMED);
+            case EXPIRED -> rejections.reject(exchange, AuthRejections.Reason.EXPIRED);
+        };
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
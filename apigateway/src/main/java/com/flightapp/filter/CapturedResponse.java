@@ -0,0 +1,86 @@
+package com.flightapp.filter;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * A complete downstream response held in memory so it can be written again
+ * to other clients. Per-exchange headers (CORS, framing) are not kept;
+ * each response gets its own.
+ */
+public record CapturedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+
+    /**
+     * Decorates {@code response} so that the body written to it is also
+     * handed to {@code sink} along with the status and headers. At most
+     * {@code maxBytes} are held back: a body declared or found to be larger
+     * is passed through without being captured, as are streamed responses.
+     */
+    public static ServerHttpResponse capturing(ServerHttpResponse response, int maxBytes,
+                                               Consumer<CapturedResponse> sink) {
+        return new ServerHttpResponseDecorator(response) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                if (getHeaders().getContentLength() > maxBytes) {
+                    return super.writeWith(body);
+                }
+                // Buffers are held until the body completes or passes maxBytes;
+                // after that each one is released downstream as it arrives
+                AtomicLong size = new AtomicLong();
+                return Flux.<DataBuffer>from(body)
+                        .bufferUntil(buffer -> size.addAndGet(buffer.readableByteCount()) > maxBytes)
+                        .defaultIfEmpty(List.of())
+                        .switchOnFirst((first, chunks) -> size.get() <= maxBytes
+                                ? super.writeWith(chunks.next().map(this::capture))
+                                : super.writeWith(chunks.concatMapIterable(chunk -> chunk)))
+                        .then();
+            }
+
+            private DataBuffer capture(List<DataBuffer> chunk) {
+                DataBuffer joined = chunk.isEmpty()
+                        ? bufferFactory().wrap(new byte[0])
+                        : bufferFactory().join(chunk);
+                byte[] bytes = new byte[joined.readableByteCount()];
+                joined.read(bytes);
+                joined.readPosition(0);
+                HttpStatusCode status = getStatusCode();
+                sink.accept(new CapturedResponse(status != null ? status : HttpStatus.OK,
+                        copyHeaders(getHeaders()), bytes));
+                return joined;
+            }
+        };
+    }
+
+    public Mono<Void> writeTo(ServerHttpResponse response) {
+        response.setStatusCode(status);
+        headers.forEach((name, values) -> response.getHeaders().putIfAbsent(name, values));
+        response.getHeaders().setContentLength(body.length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+
+    private static HttpHeaders copyHeaders(HttpHeaders source) {
+        HttpHeaders copy = new HttpHeaders();
+        source.forEach((name, values) -> {
+            if (name.regionMatches(true, 0, "Access-Control-", 0, 15)
+                    || name.equalsIgnoreCase(HttpHeaders.VARY)
+                    || name.equalsIgnoreCase(HttpHeaders.CONTENT_LENGTH)
+                    || name.equalsIgnoreCase(HttpHeaders.TRANSFER_ENCODING)
+                    || name.equalsIgnoreCase(HttpHeaders.SET_COOKIE)) {
+                return;
+            }
+            copy.put(name, List.copyOf(values));
+        });
+        return copy;
+    }
+}
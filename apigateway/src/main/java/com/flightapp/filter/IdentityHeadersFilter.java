@@ -0,0 +1,67 @@
+package com.flightapp.filter;
+
+import com.flightapp.security.IdentityHeaders;
+import com.flightapp.security.IdentitySigner;
+import com.flightapp.security.VerifiedIdentity;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Forwards the verified caller to every route as signed
+ * {@link IdentityHeaders}, so services can trust them instead of parsing
+ * the token again. Client-supplied copies are always stripped, so
+ * unauthenticated requests reach services without them.
+ */
+@Component
+public class IdentityHeadersFilter implements GlobalFilter, Ordered {
+
+    private final IdentitySigner signer;
+
+    public IdentityHeadersFilter(IdentitySigner signer) {
+        this.signer = signer;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        return VerifiedIdentity.resolve(exchange)
+                .map(jwt -> withIdentity(exchange.getRequest(), jwt))
+                .defaultIfEmpty(stripped(exchange.getRequest()))
+                .flatMap(request -> chain.filter(exchange.mutate().request(request).build()));
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    private ServerHttpRequest withIdentity(ServerHttpRequest request, Jwt jwt) {
+        String user = jwt.getSubject() != null ? jwt.getSubject() : "";
+        String roles = VerifiedIdentity.roles(jwt);
+        long expires = jwt.getExpiresAt() != null ? jwt.getExpiresAt().getEpochSecond() : 0L;
+        String signature = signer.sign(user, roles, expires);
+
+        return request.mutate()
+                .headers(h -> {
+                    h.set(IdentityHeaders.USER, user);
+                    h.set(IdentityHeaders.ROLES, roles);
+                    h.set(IdentityHeaders.EXPIRES, Long.toString(expires));
+                    h.set(IdentityHeaders.SIGNATURE, signature);
+                })
+                .build();
+    }
+
+    private static ServerHttpRequest stripped(ServerHttpRequest request) {
+        if (IdentityHeaders.ALL.stream().noneMatch(request.getHeaders()::containsKey)) {
+            return request;
+        }
+        return request.mutate()
+                .headers(h -> IdentityHeaders.ALL.forEach(h::remove))
+                .build();
+    }
+}
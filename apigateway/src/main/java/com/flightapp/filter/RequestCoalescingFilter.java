@@ -0,0 +1,77 @@
+package com.flightapp.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Collapses identical concurrent GET requests into one downstream call.
+ * The first request for a given URI and Accept header goes through; any
+ * that arrive while it is in flight wait for it and are answered with a
+ * copy of its response. If that response could not be captured (too large,
+ * streamed, or the call failed) the waiting requests go downstream
+ * themselves. Streaming (NDJSON) requests are never coalesced.
+ */
+@Component
+public class RequestCoalescingFilter implements GatewayFilter {
+
+    private final Map<String, Sinks.One<Optional<CapturedResponse>>> inFlight = new ConcurrentHashMap<>();
+    private final int maxBodyBytes;
+    private final Counter coalesced;
+
+    public RequestCoalescingFilter(MeterRegistry registry,
+                                   @Value("${gateway.coalescing.max-body-bytes:1048576}") int maxBodyBytes) {
+        this.maxBodyBytes = maxBodyBytes;
+        this.coalesced = Counter.builder("gateway.requests.coalesced").register(registry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (request.getMethod() != HttpMethod.GET || acceptsNdjson(request)) {
+            return chain.filter(exchange);
+        }
+
+        String key = request.getURI().getRawPath() + '?' + request.getURI().getRawQuery()
+                + '|' + request.getHeaders().getFirst(HttpHeaders.ACCEPT);
+        Sinks.One<Optional<CapturedResponse>> mine = Sinks.one();
+        Sinks.One<Optional<CapturedResponse>> leader = inFlight.putIfAbsent(key, mine);
+
+        if (leader != null) {
+            coalesced.increment();
+            return leader.asMono().flatMap(captured -> captured.isPresent()
+                    ? captured.get().writeTo(exchange.getResponse())
+                    : chain.filter(exchange));
+        }
+
+        AtomicReference<CapturedResponse> result = new AtomicReference<>();
+        ServerWebExchange capturing = exchange.mutate()
+                .response(CapturedResponse.capturing(exchange.getResponse(), maxBodyBytes, result::set))
+                .build();
+        return chain.filter(capturing)
+                .doFinally(signal -> {
+                    inFlight.remove(key, mine);
+                    mine.tryEmitValue(Optional.ofNullable(result.get()));
+                });
+    }
+
+    private static boolean acceptsNdjson(ServerHttpRequest request) {
+        return request.getHeaders().getAccept().stream()
+                .anyMatch(MediaType.APPLICATION_NDJSON::equalsTypeAndSubtype);
+    }
+}
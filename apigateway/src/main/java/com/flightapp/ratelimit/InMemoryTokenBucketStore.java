@@ -0,0 +1,74 @@
+package com.flightapp.ratelimit;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Token buckets held in this gateway instance. Buckets that have been idle
+ * long enough to refill completely carry no state worth keeping, so they
+ * are swept once the number of keys passes {@code maxKeys}.
+ */
+public class InMemoryTokenBucketStore implements TokenBucketStore {
+
+    private static final class Bucket {
+        double tokens;
+        long lastRefillNanos;
+
+        Bucket(double tokens, long now) {
+            this.tokens = tokens;
+            this.lastRefillNanos = now;
+        }
+    }
+
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private final int maxKeys;
+
+    public InMemoryTokenBucketStore(int maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+
+    @Override
+    public Result tryConsume(String key, long capacity, double refillPerSecond) {
+        long now = System.nanoTime();
+        Bucket bucket = buckets.computeIfAbsent(key, k -> new Bucket(capacity, now));
+        if (buckets.size() > maxKeys && sweeping.compareAndSet(false, true)) {
+            try {
+                sweep(now, capacity, refillPerSecond);
+            } finally {
+                sweeping.set(false);
+            }
+        }
+
+        synchronized (bucket) {
+            double elapsedSeconds = (now - bucket.lastRefillNanos) / 1_000_000_000.0;
+            bucket.tokens = Math.min(capacity, bucket.tokens + elapsedSeconds * refillPerSecond);
+            bucket.lastRefillNanos = Math.max(bucket.lastRefillNanos, now);
+
+            if (bucket.tokens < 1) {
+                return new Result(false, 0);
+            }
+            bucket.tokens -= 1;
+            return new Result(true, (long) bucket.tokens);
+        }
+    }
+
+    int size() {
+        return buckets.size();
+    }
+
+    private void sweep(long now, long capacity, double refillPerSecond) {
+        long fullRefillNanos = (long) (capacity / refillPerSecond * 1_000_000_000L);
+        Iterator<Bucket> it = buckets.values().iterator();
+        while (it.hasNext()) {
+            Bucket b = it.next();
+            synchronized (b) {
+                if (now - b.lastRefillNanos >= fullRefillNanos) {
+                    it.remove();
+                }
+            }
+        }
+    }
+}
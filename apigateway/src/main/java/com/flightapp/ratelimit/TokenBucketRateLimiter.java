@@ -0,0 +1,66 @@
+package com.flightapp.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Token-bucket {@link RateLimiter} for the gateway's RequestRateLimiter
+ * filter. Each key (see {@code clientKeyResolver}) gets a bucket of
+ * {@code capacity} tokens refilled at {@code refillPerSecond}; a request
+ * takes one token and is rejected with 429 when the bucket is empty.
+ */
+public class TokenBucketRateLimiter implements RateLimiter<TokenBucketRateLimiter.Config> {
+
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+
+    public static class Config {
+        private long capacity;
+        private double refillPerSecond;
+
+        public long getCapacity() { return capacity; }
+        public Config setCapacity(long capacity) { this.capacity = capacity; return this; }
+        public double getRefillPerSecond() { return refillPerSecond; }
+        public Config setRefillPerSecond(double refillPerSecond) { this.refillPerSecond = refillPerSecond; return this; }
+    }
+
+    private final TokenBucketStore store;
+    private final Config defaultConfig;
+    private final Map<String, Config> routeConfig = new HashMap<>();
+    private final Counter allowed;
+    private final Counter rejected;
+
+    public TokenBucketRateLimiter(TokenBucketStore store, Config defaultConfig, MeterRegistry registry) {
+        this.store = store;
+        this.defaultConfig = defaultConfig;
+        this.allowed = Counter.builder("gateway.ratelimit.requests").tag("result", "allowed").register(registry);
+        this.rejected = Counter.builder("gateway.ratelimit.requests").tag("result", "rejected").register(registry);
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        Config config = routeConfig.getOrDefault(routeId, defaultConfig);
+        TokenBucketStore.Result result = store.tryConsume(routeId + ":" + id, config.getCapacity(), config.getRefillPerSecond());
+        (result.allowed() ? allowed : rejected).increment();
+        return Mono.just(new Response(result.allowed(), Map.of(REMAINING_HEADER, Long.toString(result.tokensRemaining()))));
+    }
+
+    @Override
+    public Map<String, Config> getConfig() {
+        return routeConfig;
+    }
+
+    @Override
+    public Class<Config> getConfigClass() {
+        return Config.class;
+    }
+
+    @Override
+    public Config newConfig() {
+        return new Config();
+    }
+}
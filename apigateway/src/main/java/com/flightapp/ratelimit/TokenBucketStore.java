@@ -0,0 +1,20 @@
+package com.flightapp.ratelimit;
+
+/**
+ * Storage for rate-limit token buckets. The gateway ships with
+ * {@link InMemoryTokenBucketStore}; a shared store can be dropped in by
+ * defining another bean of this type.
+ */
+public interface TokenBucketStore {
+
+    /**
+     * @param tokensRemaining tokens left in the bucket after this request
+     */
+    record Result(boolean allowed, long tokensRemaining) {}
+
+    /**
+     * Refills {@code key}'s bucket for the time elapsed since it was last
+     * used, then takes one token from it if there is one.
+     */
+    Result tryConsume(String key, long capacity, double refillPerSecond);
+}
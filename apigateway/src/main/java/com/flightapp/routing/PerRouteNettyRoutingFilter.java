@@ -0,0 +1,80 @@
+package com.flightapp.routing;
+
+import com.flightapp.config.DownstreamHttpClientProperties;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * The gateway's routing filter, with a separate connection pool per route
+ * so one slow service cannot use up the connections the others need. Each
+ * pool is named {@code gateway-<routeId>} and publishes Reactor Netty's
+ * pool metrics (total, active, idle and pending connections) under
+ * {@code reactor.netty.connection.provider.*}. Response timeouts are applied
+ * by the base filter from route metadata; see {@code GatewayConfig}.
+ * Everything else about the client comes from {@code clientFactory}, which
+ * applies the gateway's {@code spring.cloud.gateway.httpclient.*} settings.
+ */
+public class PerRouteNettyRoutingFilter extends NettyRoutingFilter implements DisposableBean {
+
+    private final Function<ConnectionProvider, HttpClient> clientFactory;
+    private final DownstreamHttpClientProperties poolProperties;
+    private final Map<String, HttpClient> clients = new ConcurrentHashMap<>();
+    private final Map<String, ConnectionProvider> providers = new ConcurrentHashMap<>();
+
+    public PerRouteNettyRoutingFilter(HttpClient defaultClient,
+                                      Function<ConnectionProvider, HttpClient> clientFactory,
+                                      ObjectProvider<List<HttpHeadersFilter>> headersFilters,
+                                      HttpClientProperties properties,
+                                      DownstreamHttpClientProperties poolProperties) {
+        super(defaultClient, headersFilters, properties);
+        this.clientFactory = clientFactory;
+        this.poolProperties = poolProperties;
+    }
+
+    @Override
+    protected HttpClient getHttpClient(Route route, ServerWebExchange exchange) {
+        return clients.computeIfAbsent(route.getId(), this::createClient);
+    }
+
+    @Override
+    public void destroy() {
+        providers.values().forEach(ConnectionProvider::dispose);
+    }
+
+    private HttpClient createClient(String routeId) {
+        DownstreamHttpClientProperties.Pool pool = poolProperties.forRoute(routeId);
+
+        ConnectionProvider provider = ConnectionProvider.builder("gateway-" + routeId)
+                .maxConnections(pool.getMaxConnections())
+                .pendingAcquireMaxCount(pool.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(pool.getPendingAcquireTimeout())
+                .maxIdleTime(pool.getMaxIdleTime())
+                .maxLifeTime(pool.getMaxLifeTime())
+                .evictInBackground(pool.getEvictionInterval())
+                .metrics(true)
+                .build();
+        providers.put(routeId, provider);
+
+        HttpClient client = clientFactory.apply(provider)
+                .keepAlive(true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) pool.getConnectTimeout().toMillis());
+        if (Boolean.TRUE.equals(pool.getH2c())) {
+            client = client.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11);
+        }
+        return client;
+    }
+}
@@ -0,0 +1,43 @@
+package com.flightapp.routing;
+
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientFactory;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.List;
+
+/**
+ * Builds a route's HttpClient the same way the gateway builds its shared one,
+ * so {@code spring.cloud.gateway.httpclient.*} (SSL, proxy, header and
+ * response size limits, wiretap, compression) and any
+ * {@link HttpClientCustomizer}s still apply. Only the connection pool is
+ * replaced by the route's own. Reactor Netty has no way to swap the pool of
+ * an existing client, so the client is rebuilt rather than copied.
+ */
+public class RouteHttpClientFactory extends HttpClientFactory {
+
+    private final ConnectionProvider provider;
+
+    public RouteHttpClientFactory(ConnectionProvider provider,
+                                  HttpClientProperties properties,
+                                  ServerProperties serverProperties,
+                                  HttpClientSslConfigurer sslConfigurer,
+                                  List<HttpClientCustomizer> customizers) {
+        super(properties, serverProperties, sslConfigurer, customizers);
+        this.provider = provider;
+    }
+
+    @Override
+    public HttpClient createInstance() {
+        return super.createInstance();
+    }
+
+    @Override
+    protected ConnectionProvider buildConnectionProvider(HttpClientProperties properties) {
+        return provider;
+    }
+}
@@ -0,0 +1,68 @@
+package com.flightapp.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Counts authentication failures by reason ({@code gateway.auth.rejected})
+ * and writes the 401 for the ones the gateway answers itself. Error bodies
+ * are serialized once at startup; a rejection only wraps the shared bytes.
+ */
+@Component
+public class AuthRejections {
+
+    public enum Reason {
+        MALFORMED("malformed"),
+        EXPIRED("expired"),
+        INVALID("invalid"),
+        UNAUTHENTICATED("unauthenticated");
+
+        private final String tag;
+        private final byte[] body;
+
+        Reason(String tag) {
+            this.tag = tag;
+            this.body = ("{\"error\":\"unauthorized\",\"reason\":\"" + tag + "\"}").getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    // RFC 6750 challenge, as the resource server sends for a bad token
+    private static final String INVALID_TOKEN_CHALLENGE = "Bearer error=\"invalid_token\"";
+
+    private final Map<Reason, Counter> counters = new EnumMap<>(Reason.class);
+
+    public AuthRejections(MeterRegistry registry) {
+        for (Reason reason : Reason.values()) {
+            counters.put(reason, Counter.builder("gateway.auth.rejected").tag("reason", reason.tag).register(registry));
+        }
+    }
+
+    public void count(Reason reason) {
+        counters.get(reason).increment();
+    }
+
+    public Mono<Void> reject(ServerWebExchange exchange, Reason reason) {
+        count(reason);
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.UNAUTHORIZED);
+        HttpHeaders headers = response.getHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setContentLength(reason.body.length);
+        headers.set(HttpHeaders.WWW_AUTHENTICATE,
+                reason == Reason.UNAUTHENTICATED ? "Bearer" : INVALID_TOKEN_CHALLENGE);
+        DataBuffer body = response.bufferFactory().wrap(reason.body);
+        return response.writeWith(Mono.just(body));
+    }
+}
@@ -0,0 +1,133 @@
+package com.flightapp.security;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Cheap structural checks on an {@code Authorization} header, run before
+ * any signature verification. The header is scanned in place (no
+ * substrings, no regex) for a compact JWS shape, and only then is the
+ * payload decoded and its top-level unverified {@code exp} compared
+ * against the clock.
+ * A token passing here may still be forged; that is for {@link JwtUtil}.
+ */
+public final class BearerTokenPrecheck {
+
+    public enum Result {
+        /** No bearer token; not ours to judge (public routes, other schemes). */
+        ABSENT,
+        PASSED,
+        MALFORMED,
+        EXPIRED
+    }
+
+    private static final String PREFIX = "Bearer ";
+    // Far above anything authservice issues; stops huge headers reaching the decoder
+    static final int MAX_TOKEN_LENGTH = 4096;
+
+    private static final byte[] BASE64URL = new byte[128];
+    private static final JsonFactory JSON = new JsonFactory();
+
+    static {
+        Arrays.fill(BASE64URL, (byte) -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); i++) {
+            BASE64URL[alphabet.charAt(i)] = (byte) i;
+        }
+    }
+
+    private BearerTokenPrecheck() {}
+
+    public static Result check(String authorization, long nowMillis) {
+        if (authorization == null || !authorization.regionMatches(true, 0, PREFIX, 0, PREFIX.length())) {
+            return Result.ABSENT;
+        }
+        int start = PREFIX.length();
+        int end = authorization.length();
+        if (end - start > MAX_TOKEN_LENGTH) {
+            return Result.MALFORMED;
+        }
+
+        // header.payload.signature, each non-empty base64url
+        int firstDot = -1;
+        int secondDot = -1;
+        for (int i = start; i < end; i++) {
+            char c = authorization.charAt(i);
+            if (c == '.') {
+                if (firstDot < 0) firstDot = i;
+                else if (secondDot < 0) secondDot = i;
+                else return Result.MALFORMED;
+            } else if (c >= 128 || BASE64URL[c] < 0) {
+                return Result.MALFORMED;
+            }
+        }
+        if (firstDot <= start || secondDot <= firstDot + 1 || secondDot == end - 1) {
+            return Result.MALFORMED;
+        }
+
+        byte[] payload = decode(authorization, firstDot + 1, secondDot);
+        if (payload == null || payload.length == 0 || payload[0] != '{') {
+            return Result.MALFORMED;
+        }
+        long exp = expiry(payload);
+        if (exp == Long.MIN_VALUE) {
+            return Result.MALFORMED;
+        }
+        // Same rule as jjwt: expired once the clock is past exp
+        return exp >= 0 && nowMillis > exp * 1000 ? Result.EXPIRED : Result.PASSED;
+    }
+
+    // Unpadded base64url over s[from, to); null if the length cannot be valid
+    private static byte[] decode(String s, int from, int to) {
+        int chars = to - from;
+        if (chars % 4 == 1) return null;
+        byte[] out = new byte[chars * 3 / 4];
+        int bits = 0;
+        int buffer = 0;
+        int n = 0;
+        for (int i = from; i < to; i++) {
+            buffer = (buffer << 6) | BASE64URL[s.charAt(i)];
+            bits += 6;
+            if (bits >= 8) {
+                bits -= 8;
+                out[n++] = (byte) (buffer >> bits);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * The top-level {@code exp} claim of the payload: -1 if there is none
+     * (JwtUtil decides what to do with such tokens), or {@link Long#MIN_VALUE}
+     * if the payload is not a JSON object or {@code exp} is not a number.
+     * Nested objects and string values are skipped, never searched.
+     */
+    private static long expiry(byte[] json) {
+        try (JsonParser parser = JSON.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return Long.MIN_VALUE;
+            }
+            long exp = -1;
+            JsonToken token;
+            while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+                boolean isExp = "exp".equals(parser.currentName());
+                JsonToken value = parser.nextToken();
+                if (isExp) {
+                    if (value != JsonToken.VALUE_NUMBER_INT && value != JsonToken.VALUE_NUMBER_FLOAT) {
+                        return Long.MIN_VALUE;
+                    }
+                    exp = parser.getLongValue();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return token == JsonToken.END_OBJECT ? exp : Long.MIN_VALUE;
+        } catch (IOException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+}
@@ -2,31 +2,99 @@ package com.flightapp.security;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jws;
-import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
+/**
+ * Verifies gateway JWTs. The signing key and parser are built once; the
+ * parser is immutable and safe to share. Tokens that verified successfully
+ * are remembered, keyed by a SHA-256 of the token so the cache never holds
+ * bearer credentials, until their {@code exp} (plus the allowed clock skew),
+ * so a client repeating the same token skips signature verification and
+ * claim parsing.
+ */
 @Component
 public class JwtUtil {
 
-    @Value("${app.jwt.secret}")
-    private String secret;
+    private record Verified(Jws<Claims> jws, long expiresAt) {}
 
-    private SecretKey key() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    private final JwtParser parser;
+    private final Duration clockSkew;
+    private final Map<String, Verified> verified;
+
+    public JwtUtil(@Value("${app.jwt.secret}") String secret,
+                   @Value("${app.jwt.verified-cache.max-entries:10000}") int maxEntries,
+                   @Value("${app.jwt.clock-skew-seconds:60}") long clockSkewSeconds) {
+        SecretKey key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.clockSkew = Duration.ofSeconds(clockSkewSeconds);
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .setAllowedClockSkewSeconds(clockSkewSeconds)
+                .build();
+        this.verified = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Verified> eldest) {
+                return size() > maxEntries;
+            }
+        };
     }
 
+    /**
+     * @return the token's claims; callers must treat them as read-only since
+     *         they may be shared with other requests bearing the same token
+     */
     public Claims extractClaims(String token) throws JwtException {
-        Jws<Claims> jws = Jwts.parserBuilder()
-                .setSigningKey(key())
-                .build()
-                .parseClaimsJws(token);
-        return jws.getBody();
+        return verify(token).getBody();
+    }
+
+    /**
+     * @return the verified token, header and claims; read-only like
+     *         {@link #extractClaims}
+     */
+    public Jws<Claims> verify(String token) throws JwtException {
+        String hash = hash(token);
+        long now = System.currentTimeMillis();
+        synchronized (verified) {
+            Verified v = verified.get(hash);
+            if (v != null) {
+                if (v.expiresAt() > now) {
+                    return v.jws();
+                }
+                verified.remove(hash);
+            }
+        }
+
+        Jws<Claims> jws = parser.parseClaimsJws(token);
+
+        // Tokens without an expiry are verified every time rather than cached forever
+        Date exp = jws.getBody().getExpiration();
+        if (exp != null) {
+            synchronized (verified) {
+                verified.put(hash, new Verified(jws, exp.getTime() + clockSkew.toMillis()));
+            }
+        }
+        return jws;
+    }
+
+    /**
+     * How far {@code exp} and {@code nbf} may be off from this clock.
+     */
+    public Duration clockSkew() {
+        return clockSkew;
     }
 
     public boolean validate(String token) {
@@ -37,4 +105,14 @@ public class JwtUtil {
             return false;
         }
     }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // Every JRE is required to provide SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
 }
@@ -0,0 +1,43 @@
+package com.flightapp.security;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.stream.Collectors;
+
+/**
+ * The JWT verified for a request by the resource server. The token is looked up
+ * once per exchange and kept as an attribute, so later filters never decode
+ * or verify it again.
+ */
+public final class VerifiedIdentity {
+
+    public static final String JWT_ATTRIBUTE = VerifiedIdentity.class.getName() + ".jwt";
+
+    private VerifiedIdentity() {}
+
+    /**
+     * @return the verified JWT, or empty if the request is not authenticated with one
+     */
+    public static Mono<Jwt> resolve(ServerWebExchange exchange) {
+        Jwt cached = exchange.getAttribute(JWT_ATTRIBUTE);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return exchange.getPrincipal()
+                .filter(JwtAuthenticationToken.class::isInstance)
+                .map(p -> ((JwtAuthenticationToken) p).getToken())
+                .doOnNext(jwt -> exchange.getAttributes().put(JWT_ATTRIBUTE, jwt));
+    }
+
+    public static String roles(Jwt jwt) {
+        Object roles = jwt.getClaims().get("roles");
+        if (roles instanceof Collection<?> list) {
+            return list.stream().map(String::valueOf).collect(Collectors.joining(","));
+        }
+        return roles == null ? "" : roles.toString();
+    }
+}
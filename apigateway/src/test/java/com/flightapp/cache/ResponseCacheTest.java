@@ -0,0 +1,56 @@
+package com.flightapp.cache;
+
+import com.flightapp.filter.CapturedResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResponseCacheTest {
+
+    private static CapturedResponse response(String body) {
+        return new CapturedResponse(HttpStatus.OK, new HttpHeaders(), body.getBytes());
+    }
+
+    @Test
+    public void storesWithStableEtagAndDropsOnInvalidation() {
+        ResponseCache cache = new ResponseCache(new SimpleMeterRegistry(), 100, 1_000_000);
+        String tag = ResponseCacheFilter.routeTag("BLR", "DEL");
+
+        ResponseCache.Cached stored = cache.put("k1", tag, cache.generation(tag), response("[1]"), 60_000);
+        assertNotNull(stored);
+        assertSame(stored, cache.get("k1"));
+        assertEquals(stored.etag(), cache.put("k2", tag, cache.generation(tag), response("[1]"), 60_000).etag());
+
+        cache.invalidate(tag);
+        assertNull(cache.get("k1"));
+        assertNull(cache.get("k2"));
+    }
+
+    @Test
+    public void responseFetchedBeforeInvalidationIsNotStored() {
+        ResponseCache cache = new ResponseCache(new SimpleMeterRegistry(), 100, 1_000_000);
+        String tag = ResponseCacheFilter.flightTag("f1");
+
+        long generation = cache.generation(tag);
+        cache.invalidate(tag);
+
+        assertNull(cache.put("k", tag, generation, response("{}"), 60_000));
+        assertNull(cache.get("k"));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedPastByteBudget() {
+        ResponseCache cache = new ResponseCache(new SimpleMeterRegistry(), 100, 10);
+        cache.put("a", "t", 0, response("12345"), 60_000);
+        cache.put("b", "t", 0, response("12345"), 60_000);
+        cache.get("a");
+        cache.put("c", "t", 0, response("12345"), 60_000);
+
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertTrue(cache.bytes() <= 10);
+    }
+}
@@ -0,0 +1,88 @@
+package com.flightapp.config;
+
+import com.flightapp.security.AuthRejections;
+import com.flightapp.security.JwtUtil;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtDecoderConfigTest {
+
+    // 48 bytes, so jjwt signs with HS384 rather than the HS256 a hard-coded header would claim
+    private static final String SECRET = "0123456789abcdef0123456789abcdef0123456789abcdef";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final JwtUtil jwtUtil = new JwtUtil(SECRET, 10, 60);
+    private final ReactiveJwtDecoder decoder =
+            new JwtDecoderConfig().reactiveJwtDecoder(jwtUtil, new AuthRejections(registry));
+
+    private static String token(long expOffsetMillis, long nbfOffsetMillis) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .setSubject("alice")
+                .claim("roles", "USER")
+                .setIssuedAt(new Date(now + Math.min(0, nbfOffsetMillis)))
+                .setNotBefore(new Date(now + nbfOffsetMillis))
+                .setExpiration(new Date(now + expOffsetMillis))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+
+    private double invalid() {
+        return registry.get("gateway.auth.rejected").tag("reason", "invalid").counter().count();
+    }
+
+    @Test
+    public void decodesThroughJwtUtil() {
+        String token = token(60_000, 0);
+
+        Jwt jwt = decoder.decode(token).block();
+
+        assertEquals("alice", jwt.getSubject());
+        assertEquals("USER", jwt.getClaimAsString("roles"));
+        assertNotNull(jwt.getExpiresAt());
+    }
+
+    @Test
+    public void headerComesFromTheToken() {
+        Jwt jwt = decoder.decode(token(60_000, 0)).block();
+
+        assertEquals(SignatureAlgorithm.HS384.getValue(), jwt.getHeaders().get("alg"));
+    }
+
+    @Test
+    public void expiryWithinClockSkewIsAccepted() {
+        assertEquals("alice", decoder.decode(token(-30_000, -60_000)).block().getSubject());
+    }
+
+    @Test
+    public void expiryBeyondClockSkewIsRejected() {
+        assertThrows(BadJwtException.class, () -> decoder.decode(token(-120_000, -180_000)).block());
+        assertEquals(1.0, invalid());
+    }
+
+    @Test
+    public void notYetValidTokenIsRejected() {
+        assertThrows(BadJwtException.class, () -> decoder.decode(token(600_000, 300_000)).block());
+        assertEquals(1.0, invalid());
+    }
+
+    @Test
+    public void tamperedTokenIsRejectedAndCounted() {
+        String token = token(60_000, 0);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertThrows(BadJwtException.class, () -> decoder.decode(tampered).block());
+        assertEquals(1.0, invalid());
+    }
+}
@@ -0,0 +1,55 @@
+package com.flightapp.filter;
+
+import com.flightapp.config.CorsConfig;
+import com.flightapp.security.AuthRejections;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.cors.reactive.CorsWebFilter;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BearerPrecheckWebFilterTest {
+
+    private final CorsConfig corsConfig = new CorsConfig();
+    private final CorsWebFilter cors = corsConfig.corsWebFilter(corsConfig.corsConfigurationSource());
+    private final BearerPrecheckWebFilter precheck = new BearerPrecheckWebFilter(new AuthRejections(new SimpleMeterRegistry()), 60);
+
+    @Test
+    void corsRunsBeforeThePrecheck() {
+        assertTrue(CorsConfig.CORS_FILTER_ORDER < BearerPrecheckWebFilter.ORDER);
+    }
+
+    @Test
+    void rejectionIsReadableCrossOrigin() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("http://localhost:8080/bookings")
+                .header(HttpHeaders.ORIGIN, "http://localhost:4200")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer not-a-jwt"));
+
+        run(exchange, List.of(cors, precheck));
+
+        assertEquals(HttpStatus.UNAUTHORIZED, exchange.getResponse().getStatusCode());
+        assertEquals("http://localhost:4200",
+                exchange.getResponse().getHeaders().getAccessControlAllowOrigin());
+    }
+
+    private static void run(MockServerWebExchange exchange, List<WebFilter> filters) {
+        chain(filters, 0).filter(exchange).block();
+    }
+
+    private static WebFilterChain chain(List<WebFilter> filters, int index) {
+        if (index == filters.size()) {
+            return exchange -> Mono.empty();
+        }
+        return exchange -> filters.get(index).filter(exchange, chain(filters, index + 1));
+    }
+}
@@ -0,0 +1,74 @@
+package com.flightapp.filter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CapturedResponseTest {
+
+    private static Flux<DataBuffer> chunks(String... parts) {
+        return Flux.fromArray(parts)
+                .map(part -> DefaultDataBufferFactory.sharedInstance.wrap(part.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void capturesBodyWithinLimit() {
+        MockServerHttpResponse downstream = new MockServerHttpResponse();
+        AtomicReference<CapturedResponse> captured = new AtomicReference<>();
+        ServerHttpResponse response = CapturedResponse.capturing(downstream, 16, captured::set);
+        response.setStatusCode(HttpStatus.OK);
+
+        response.writeWith(chunks("hello ", "world")).block();
+
+        assertArrayEquals("hello world".getBytes(StandardCharsets.UTF_8), captured.get().body());
+        assertEquals("hello world", downstream.getBodyAsString().block());
+    }
+
+    @Test
+    void passesLargeBodyThroughWithoutCapturing() {
+        MockServerHttpResponse downstream = new MockServerHttpResponse();
+        AtomicReference<CapturedResponse> captured = new AtomicReference<>();
+        ServerHttpResponse response = CapturedResponse.capturing(downstream, 8, captured::set);
+
+        response.writeWith(chunks("hello ", "world", ", and more")).block();
+
+        assertNull(captured.get());
+        assertEquals("hello world, and more", downstream.getBodyAsString().block());
+    }
+
+    @Test
+    void skipsBodyDeclaredOverLimit() {
+        MockServerHttpResponse downstream = new MockServerHttpResponse();
+        AtomicReference<CapturedResponse> captured = new AtomicReference<>();
+        ServerHttpResponse response = CapturedResponse.capturing(downstream, 8, captured::set);
+        response.getHeaders().setContentLength(11);
+
+        response.writeWith(chunks("hello ", "world")).block();
+
+        assertNull(captured.get());
+        assertEquals("hello world", downstream.getBodyAsString().block());
+    }
+
+    @Test
+    void capturesEmptyBody() {
+        MockServerHttpResponse downstream = new MockServerHttpResponse();
+        AtomicReference<CapturedResponse> captured = new AtomicReference<>();
+        ServerHttpResponse response = CapturedResponse.capturing(downstream, 8, captured::set);
+
+        response.writeWith(Flux.empty()).block();
+
+        assertEquals(0, captured.get().body().length);
+        assertEquals(HttpStatus.OK, captured.get().status());
+    }
+}
@@ -0,0 +1,44 @@
+package com.flightapp.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InMemoryTokenBucketStoreTest {
+
+    @Test
+    public void allowsBurstUpToCapacityThenRejects() {
+        InMemoryTokenBucketStore store = new InMemoryTokenBucketStore(100);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(store.tryConsume("ip:1.2.3.4", 3, 0.001).allowed());
+        }
+        TokenBucketStore.Result denied = store.tryConsume("ip:1.2.3.4", 3, 0.001);
+        assertFalse(denied.allowed());
+        assertEquals(0, denied.tokensRemaining());
+
+        // Other clients have their own bucket
+        assertTrue(store.tryConsume("ip:5.6.7.8", 3, 0.001).allowed());
+    }
+
+    @Test
+    public void refillsOverTime() throws InterruptedException {
+        InMemoryTokenBucketStore store = new InMemoryTokenBucketStore(100);
+        assertTrue(store.tryConsume("k", 1, 100).allowed());
+        assertFalse(store.tryConsume("k", 1, 100).allowed());
+
+        Thread.sleep(50);
+        assertTrue(store.tryConsume("k", 1, 100).allowed());
+    }
+
+    @Test
+    public void sweepsIdleBucketsPastMaxKeys() throws InterruptedException {
+        InMemoryTokenBucketStore store = new InMemoryTokenBucketStore(2);
+        store.tryConsume("a", 1, 1000);
+        store.tryConsume("b", 1, 1000);
+        Thread.sleep(10);
+        store.tryConsume("c", 1, 1000);
+
+        assertTrue(store.size() <= 2);
+    }
+}
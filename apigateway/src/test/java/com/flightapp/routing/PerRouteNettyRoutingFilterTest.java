@@ -0,0 +1,116 @@
+package com.flightapp.routing;
+
+import com.flightapp.config.DownstreamHttpClientProperties;
+import io.netty.channel.ChannelOption;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.util.unit.DataSize;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PerRouteNettyRoutingFilterTest {
+
+    private final HttpClientProperties gatewayProperties = new HttpClientProperties();
+    private final DownstreamHttpClientProperties poolProperties = new DownstreamHttpClientProperties();
+    private PerRouteNettyRoutingFilter filter;
+
+    @SuppressWarnings("unchecked")
+    private PerRouteNettyRoutingFilter filter() {
+        ServerProperties serverProperties = new ServerProperties();
+        HttpClientSslConfigurer ssl = new HttpClientSslConfigurer(gatewayProperties.getSsl(), serverProperties);
+        filter = new PerRouteNettyRoutingFilter(HttpClient.create(),
+                provider -> new RouteHttpClientFactory(provider, gatewayProperties, serverProperties, ssl, List.of())
+                        .createInstance(),
+                Mockito.mock(ObjectProvider.class), gatewayProperties, poolProperties);
+        return filter;
+    }
+
+    private static Route route(String id) {
+        return Route.async().id(id).uri("http://localhost:8080").predicate(exchange -> true).build();
+    }
+
+    private static HttpClient client(PerRouteNettyRoutingFilter filter, String routeId) {
+        return filter.getHttpClient(route(routeId), null);
+    }
+
+    @AfterEach
+    public void disposePools() {
+        if (filter != null) {
+            filter.destroy();
+        }
+    }
+
+    @Test
+    public void eachRouteGetsItsOwnNamedPool() {
+        PerRouteNettyRoutingFilter filter = filter();
+
+        HttpClient booking = client(filter, "bookingservice");
+        HttpClient flights = client(filter, "flightservice");
+
+        assertSame(booking, client(filter, "bookingservice"));
+        assertNotSame(booking.configuration().connectionProvider(), flights.configuration().connectionProvider());
+        assertEquals("gateway-bookingservice", booking.configuration().connectionProvider().name());
+        assertEquals("gateway-flightservice", flights.configuration().connectionProvider().name());
+    }
+
+    @Test
+    public void routeOverridesApplyOnlyToThatRoute() {
+        DownstreamHttpClientProperties.Pool booking = new DownstreamHttpClientProperties.Pool();
+        booking.setMaxConnections(7);
+        booking.setConnectTimeout(Duration.ofMillis(750));
+        booking.setH2c(true);
+        poolProperties.getRoutes().put("bookingservice", booking);
+        PerRouteNettyRoutingFilter filter = filter();
+
+        HttpClient bookingClient = client(filter, "bookingservice");
+        HttpClient flightClient = client(filter, "flightservice");
+
+        assertEquals(7, bookingClient.configuration().connectionProvider().maxConnections());
+        assertEquals(750, bookingClient.configuration().options().get(ChannelOption.CONNECT_TIMEOUT_MILLIS));
+        assertArrayEquals(new HttpProtocol[]{HttpProtocol.H2C, HttpProtocol.HTTP11},
+                bookingClient.configuration().protocols());
+        assertEquals(200, flightClient.configuration().connectionProvider().maxConnections());
+        assertEquals(2000, flightClient.configuration().options().get(ChannelOption.CONNECT_TIMEOUT_MILLIS));
+    }
+
+    @Test
+    public void gatewayHttpClientSettingsStillApply() {
+        gatewayProperties.setCompression(true);
+        gatewayProperties.setMaxHeaderSize(DataSize.ofKilobytes(32));
+        gatewayProperties.getProxy().setHost("proxy.internal");
+        gatewayProperties.getProxy().setPort(3128);
+        gatewayProperties.getSsl().setUseInsecureTrustManager(true);
+
+        HttpClient client = client(filter(), "bookingservice");
+
+        assertTrue(client.configuration().isAcceptGzip());
+        assertEquals(32 * 1024, client.configuration().decoder().maxHeaderSize());
+        assertNotNull(client.configuration().proxyProvider());
+        assertNotNull(client.configuration().sslProvider());
+        assertEquals("gateway-bookingservice", client.configuration().connectionProvider().name());
+    }
+
+    @Test
+    public void destroyDisposesEveryPool() {
+        PerRouteNettyRoutingFilter filter = filter();
+        ConnectionProvider booking = client(filter, "bookingservice").configuration().connectionProvider();
+        ConnectionProvider flights = client(filter, "flightservice").configuration().connectionProvider();
+
+        filter.destroy();
+
+        assertTrue(booking.isDisposed());
+        assertTrue(flights.isDisposed());
+    }
+}
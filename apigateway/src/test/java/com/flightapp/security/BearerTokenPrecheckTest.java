@@ -0,0 +1,85 @@
+package com.flightapp.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+import static com.flightapp.security.BearerTokenPrecheck.Result.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BearerTokenPrecheckTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+    private static String token(long expiresAtMillis) {
+        return Jwts.builder()
+                .setSubject("alice")
+                .setExpiration(new Date(expiresAtMillis))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+
+    private static String b64(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void passesWellFormedUnexpiredToken() {
+        long now = System.currentTimeMillis();
+        assertEquals(PASSED, BearerTokenPrecheck.check("Bearer " + token(now + 60_000), now));
+        assertEquals(PASSED, BearerTokenPrecheck.check("bearer " + token(now + 60_000), now));
+    }
+
+    @Test
+    public void rejectsExpiredTokenWithoutVerifying() {
+        long now = System.currentTimeMillis();
+        assertEquals(EXPIRED, BearerTokenPrecheck.check("Bearer " + token(now - 5_000), now));
+
+        // The signature is never looked at
+        String forged = b64("{\"alg\":\"HS256\"}") + "." + b64("{\"sub\":\"x\", \"exp\" : 1}") + ".c2ln";
+        assertEquals(EXPIRED, BearerTokenPrecheck.check("Bearer " + forged, now));
+    }
+
+    @Test
+    public void readsOnlyTopLevelExpClaim() {
+        long now = System.currentTimeMillis();
+        long future = now / 1000 + 600;
+        String header = b64("{\"alg\":\"HS256\"}");
+
+        // "exp" inside a string value or a nested object is not the token's expiry
+        String inString = header + "." + b64("{\"sub\":\"\\\"exp\\\":1\",\"exp\":" + future + "}") + ".c2ln";
+        assertEquals(PASSED, BearerTokenPrecheck.check("Bearer " + inString, now));
+        String nested = header + "." + b64("{\"ctx\":{\"exp\":1},\"exp\":" + future + "}") + ".c2ln";
+        assertEquals(PASSED, BearerTokenPrecheck.check("Bearer " + nested, now));
+        String nestedOnly = header + "." + b64("{\"ctx\":{\"exp\":1}}") + ".c2ln";
+        assertEquals(PASSED, BearerTokenPrecheck.check("Bearer " + nestedOnly, now));
+
+        String truncated = header + "." + b64("{\"exp\":" + future) + ".c2ln";
+        assertEquals(MALFORMED, BearerTokenPrecheck.check("Bearer " + truncated, now));
+    }
+
+    @Test
+    public void rejectsWrongShape() {
+        long now = System.currentTimeMillis();
+        assertEquals(MALFORMED, BearerTokenPrecheck.check("Bearer ", now));
+        assertEquals(MALFORMED, BearerTokenPrecheck.check("Bearer abc", now));
+        assertEquals(MALFORMED, BearerTokenPrecheck.check("Bearer a.b.c.d", now));
+        assertEquals(MALFORMED, BearerTokenPrecheck.check("Bearer a..c", now));
+        assertEquals(MALFORMED, BearerTokenPrecheck.check("Bearer a.b.", now));
+        assertEquals(MALFORMED, BearerTokenPrecheck.check("Bearer a b.c.d", now));
+        assertEquals(MALFORMED, BearerTokenPrecheck.check("Bearer " + b64("not json") + "." + b64("[1]") + ".c2ln", now));
+        assertEquals(MALFORMED, BearerTokenPrecheck.check("Bearer " + b64("{}") + "." + b64("{\"exp\":\"soon\"}") + ".c2ln", now));
+        assertEquals(MALFORMED, BearerTokenPrecheck.check("Bearer " + "a".repeat(BearerTokenPrecheck.MAX_TOKEN_LENGTH) + ".b.c", now));
+    }
+
+    @Test
+    public void ignoresRequestsWithoutBearerToken() {
+        long now = System.currentTimeMillis();
+        assertEquals(ABSENT, BearerTokenPrecheck.check(null, now));
+        assertEquals(ABSENT, BearerTokenPrecheck.check("Basic dXNlcjpwYXNz", now));
+    }
+}
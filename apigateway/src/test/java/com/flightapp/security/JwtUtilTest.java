@@ -0,0 +1,46 @@
+package com.flightapp.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtUtilTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+    private static String token(String subject, long ttlMillis) {
+        return Jwts.builder()
+                .setSubject(subject)
+                .setExpiration(new Date(System.currentTimeMillis() + ttlMillis))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+
+    @Test
+    public void repeatedTokenIsServedFromCache() {
+        JwtUtil util = new JwtUtil(SECRET, 10, 0);
+        String token = token("alice", 60_000);
+
+        Claims first = util.extractClaims(token);
+        assertEquals("alice", first.getSubject());
+        assertSame(first, util.extractClaims(token));
+    }
+
+    @Test
+    public void tamperedTokenIsRejected() {
+        JwtUtil util = new JwtUtil(SECRET, 10, 0);
+        String token = token("alice", 60_000);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertTrue(util.validate(token));
+        assertFalse(util.validate(tampered));
+        assertThrows(JwtException.class, () -> util.extractClaims(tampered));
+    }
+}
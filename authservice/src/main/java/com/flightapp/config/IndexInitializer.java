@@ -0,0 +1,50 @@
+package com.flightapp.config;
+
+import com.flightapp.model.RefreshToken;
+import com.flightapp.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the indexes declared on the authservice documents (auto index
+ * creation is off by default). Runs before {@link DataInitializer}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class IndexInitializer implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexInitializer.class);
+
+    private static final Class<?>[] DOCUMENTS = { User.class, RefreshToken.class };
+
+    private final MongoTemplate mongo;
+
+    public IndexInitializer(MongoTemplate mongo) {
+        this.mongo = mongo;
+    }
+
+    @Override
+    public void run(String... args) {
+        MongoPersistentEntityIndexResolver resolver =
+                new MongoPersistentEntityIndexResolver(mongo.getConverter().getMappingContext());
+        for (Class<?> document : DOCUMENTS) {
+            IndexOperations indexOps = mongo.indexOps(document);
+            resolver.resolveIndexFor(document).forEach(index -> {
+                try {
+                    indexOps.ensureIndex(index);
+                } catch (DataAccessException e) {
+                    // e.g. existing duplicate usernames; keep serving and let them be cleaned up
+                    logger.error("Could not create index {} on {}", index.getIndexKeys().toJson(), document.getSimpleName(), e);
+                }
+            });
+        }
+    }
+}
@@ -1,22 +1,31 @@
 package com.flightapp.config;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.Map;
+
 @Configuration
 public class WebSecurityConfig {
 
+    private static final Logger logger = LoggerFactory.getLogger(WebSecurityConfig.class);
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
             .csrf(csrf -> csrf.disable())
             .authorizeHttpRequests(auth -> auth
-                // Allow unauthenticated access only for login & signup endpoints
-                .requestMatchers("/auth/login", "/auth/signup", "/actuator/**", "/h2-console/**").permitAll()
+                // Allow unauthenticated access only for login, signup and refresh-token endpoints
+                .requestMatchers("/auth/login", "/auth/signup", "/auth/refresh", "/auth/logout", "/actuator/**", "/h2-console/**").permitAll()
                 // Any other endpoint (including /auth/change-password) requires authentication
                 .anyRequest().authenticated()
             )
@@ -26,8 +35,38 @@ public class WebSecurityConfig {
         return http.build();
     }
 
+    /**
+     * New hashes use {@code auth.password.algorithm} with the configured cost
+     * and are stored as {@code {id}hash}; both algorithms are always accepted
+     * for matching. Hashes from before this encoder have no prefix and are
+     * read as BCrypt. {@code upgradeEncoding} reports a stored hash with a
+     * different algorithm or a lower cost, so logins can rehash it.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Value("${auth.password.algorithm:bcrypt}") String algorithm,
+            @Value("${auth.password.bcrypt.strength:10}") int bcryptStrength,
+            @Value("${auth.password.argon2.memory-kb:19456}") int argon2MemoryKb,
+            @Value("${auth.password.argon2.iterations:2}") int argon2Iterations,
+            @Value("${auth.password.argon2.parallelism:1}") int argon2Parallelism) {
+
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        Argon2PasswordEncoder argon2 =
+                new Argon2PasswordEncoder(16, 32, argon2Parallelism, argon2MemoryKb, argon2Iterations);
+        Map<String, PasswordEncoder> encoders = Map.of("bcrypt", bcrypt, "argon2", argon2);
+
+        if (!encoders.containsKey(algorithm)) {
+            throw new IllegalArgumentException("Unknown auth.password.algorithm: " + algorithm);
+        }
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(algorithm, encoders);
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        // One hash at startup shows what the configured cost means on this node
+        long start = System.nanoTime();
+        encoder.encode("cost-probe");
+        logger.info("Password hashing uses {}; one hash takes {} ms on this node",
+                algorithm, (System.nanoTime() - start) / 1_000_000);
+
+        return encoder;
     }
 }
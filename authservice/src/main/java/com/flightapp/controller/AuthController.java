@@ -1,29 +1,47 @@
 package com.flightapp.controller;
 
 import com.flightapp.model.User;
-import com.flightapp.repo.UserRepository;
+import com.flightapp.service.LoginThrottle;
+import com.flightapp.service.PasswordHasher;
+import com.flightapp.service.RefreshTokenService;
+import com.flightapp.service.UserCache;
+import com.mongodb.MongoServerException;
+import com.mongodb.MongoWriteException;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
-import io.jsonwebtoken.Claims;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @RestController
 @RequestMapping("/auth")
 public class AuthController {
 
-    private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private static final Logger logger = LoggerFactory.getLogger(AuthController.class);
+    private static final Pattern DUPLICATE_KEY_INDEX = Pattern.compile("index: (\\S+) dup key");
 
-    @Value("${app.jwt.secret}")
-    private String secret;
+    private final UserCache users;
+    private final PasswordHasher passwordHasher;
+    private final LoginThrottle loginThrottle;
+    private final RefreshTokenService refreshTokens;
+    // Built once; both are immutable and thread-safe
+    private final SecretKey signingKey;
+    private final JwtParser parser;
 
     @Value("${app.jwt.issuer:flightapp}")
     private String issuer;
@@ -34,14 +52,23 @@ public class AuthController {
     @Value("${app.admin.secret:}")
     private String adminSecret;
 
-    public AuthController(UserRepository userRepository, PasswordEncoder passwordEncoder) {
-        this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+    public AuthController(UserCache users,
+                          PasswordHasher passwordHasher,
+                          LoginThrottle loginThrottle,
+                          RefreshTokenService refreshTokens,
+                          @Value("${app.jwt.secret}") String secret) {
+        this.users = users;
+        this.passwordHasher = passwordHasher;
+        this.loginThrottle = loginThrottle;
+        this.refreshTokens = refreshTokens;
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
     }
 
     public record SignupRequest(String username, String password, String email, String adminSecret) {}
     public record LoginRequest(String username, String password) {}
-    public record TokenResponse(String token) {}
+    public record TokenResponse(String token, String refreshToken) {}
+    public record RefreshRequest(String refreshToken) {}
     public record ChangePasswordRequest(String currentPassword, String newPassword) {}
 
     /**
@@ -51,87 +78,202 @@ public class AuthController {
      * This prevents privilege escalation attacks.
      */
     @PostMapping("/signup")
-    public ResponseEntity<?> signup(@RequestBody SignupRequest req) {
-        if (userRepository.findByUsername(req.username()).isPresent()) {
-            return ResponseEntity.badRequest().body("Username already exists");
+    public CompletableFuture<ResponseEntity<?>> signup(@RequestBody SignupRequest req) {
+        // Usernames are never freed, so a cached hit is as good as a read; the unique index settles races
+        if (users.findByUsername(req.username()).isPresent()) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Username already exists"));
         }
 
-        String hashed = passwordEncoder.encode(req.password());
         String role = (req.adminSecret() != null && !req.adminSecret().isBlank() && req.adminSecret().equals(adminSecret)) ? "ADMIN" : "USER";
-        User user = new User(null, req.username(), req.email(), hashed, role);
-        userRepository.save(user);
-
-        return ResponseEntity.ok("User created");
+        return passwordHasher.encode(req.password()).thenApply(hashed -> {
+            User user = new User(null, req.username(), req.email(), hashed, role);
+            try {
+                users.save(user);
+            } catch (DuplicateKeyException e) {
+                // Lost a race with a concurrent signup, or the email is taken
+                return ResponseEntity.badRequest().body(User.EMAIL_INDEX.equals(violatedIndex(e))
+                        ? "Email already registered"
+                        : "Username already exists");
+            }
+            return ResponseEntity.ok("User created");
+        });
     }
 
+    // Hashing runs on PasswordHasher's pool; the request thread is released while it waits.
+    // Throttled usernames are refused before any hashing is done.
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequest req) {
-        Optional<User> userOpt = userRepository.findByUsername(req.username());
-        if (userOpt.isEmpty())
-            return ResponseEntity.status(401).body("Invalid username or password");
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody LoginRequest req) {
+        long retryAfterMs = loginThrottle.retryAfterMs(req.username());
+        if (retryAfterMs > 0) {
+            return CompletableFuture.completedFuture(tooManyRequests(retryAfterMs, "Too many failed login attempts"));
+        }
 
-        User user = userOpt.get();
+        Optional<User> userOpt = users.findCredentials(req.username());
+        if (userOpt.isEmpty()) {
+            loginThrottle.recordFailure(req.username());
+            return CompletableFuture.completedFuture(ResponseEntity.status(401).body("Invalid username or password"));
+        }
 
-        if (!passwordEncoder.matches(req.password(), user.getPasswordHash()))
-            return ResponseEntity.status(401).body("Invalid username or password");
+        return verifyCredentials(userOpt.get(), req.password()).thenApply(verified -> {
+            if (verified.isEmpty()) {
+                loginThrottle.recordFailure(req.username());
+                return ResponseEntity.status(401).body("Invalid username or password");
+            }
+            User user = verified.get().user();
+            loginThrottle.recordSuccess(req.username());
+            if (verified.get().upgradedHash() != null) {
+                upgradeHash(user, verified.get().upgradedHash());
+            }
+            return ResponseEntity.ok(new TokenResponse(issueToken(user), refreshTokens.issue(user.getUsername())));
+        });
+    }
 
-        SecretKey key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    private record VerifiedUser(User user, String upgradedHash) {}
+
+    /**
+     * Checks the password against the cached hash. If it does not match and
+     * Mongo holds a different hash (the password was changed on another
+     * instance since the entry was cached), checks once more against that.
+     */
+    private CompletableFuture<Optional<VerifiedUser>> verifyCredentials(User cached, String password) {
+        return passwordHasher.verify(password, cached.getPasswordHash()).thenCompose(verification -> {
+            if (verification.matches()) {
+                return CompletableFuture.completedFuture(Optional.of(new VerifiedUser(cached, verification.upgradedHash())));
+            }
+            Optional<User> current = users.load(cached.getUsername())
+                    .filter(u -> !u.getPasswordHash().equals(cached.getPasswordHash()));
+            if (current.isEmpty()) {
+                return CompletableFuture.completedFuture(Optional.empty());
+            }
+            return passwordHasher.verify(password, current.get().getPasswordHash()).thenApply(v -> v.matches()
+                    ? Optional.of(new VerifiedUser(current.get(), v.upgradedHash()))
+                    : Optional.empty());
+        });
+    }
+
+    /**
+     * Exchanges a refresh token for a new access token and a new refresh
+     * token; the presented one cannot be used again. No password hashing.
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@RequestBody RefreshRequest req) {
+        Optional<RefreshTokenService.Rotation> rotation = refreshTokens.rotate(req.refreshToken());
+        if (rotation.isEmpty()) {
+            return ResponseEntity.status(401).body("Invalid refresh token");
+        }
+
+        // Roles are read fresh so role changes apply from the next refresh
+        Optional<User> userOpt = users.findByUsername(rotation.get().username());
+        if (userOpt.isEmpty()) {
+            refreshTokens.revokeAll(rotation.get().username());
+            return ResponseEntity.status(401).body("Invalid refresh token");
+        }
+        return ResponseEntity.ok(new TokenResponse(issueToken(userOpt.get()), rotation.get().refreshToken()));
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestBody RefreshRequest req) {
+        refreshTokens.revoke(req.refreshToken());
+        return ResponseEntity.noContent().build();
+    }
+
+    // Best effort: the login succeeds either way, and the next one will try again
+    private void upgradeHash(User user, String upgradedHash) {
+        try {
+            user.setPasswordHash(upgradedHash);
+            users.save(user);
+        } catch (RuntimeException e) {
+            logger.warn("Could not upgrade password hash for {}", user.getUsername(), e);
+        }
+    }
+
+    /**
+     * Name of the unique index a duplicate key error was raised for, taken
+     * from the server's write error ("... index: email dup key: ..."), or
+     * null if it cannot be told.
+     */
+    static String violatedIndex(DuplicateKeyException e) {
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            String message = cause instanceof MongoWriteException write ? write.getError().getMessage()
+                    : cause instanceof MongoServerException server ? server.getMessage()
+                    : null;
+            if (message == null) continue;
+            Matcher m = DUPLICATE_KEY_INDEX.matcher(message);
+            if (m.find()) {
+                return m.group(1);
+            }
+        }
+        return null;
+    }
+
+    private String issueToken(User user) {
         long now = System.currentTimeMillis();
 
-        String jwt = Jwts.builder()
+        return Jwts.builder()
                 .setSubject(user.getUsername())
                 .setIssuer(issuer)
                 .setIssuedAt(new Date(now))
                 .setExpiration(new Date(now + ttl))
                 .claim("roles", user.getRoles())     // stored as string → fine
-                .signWith(key)
+                .signWith(signingKey)
                 .compact();
-
-        return ResponseEntity.ok(new TokenResponse(jwt));
     }
 
-    private ResponseEntity<?> handlePasswordChangeForUser(String username, ChangePasswordRequest req) {
-        Optional<User> userOpt = userRepository.findByUsername(username);
+    private CompletableFuture<ResponseEntity<?>> handlePasswordChangeForUser(String username, ChangePasswordRequest req) {
+        Optional<User> userOpt = users.load(username);
         if (userOpt.isEmpty()) {
-            return ResponseEntity.status(404).body("User not found");
+            return CompletableFuture.completedFuture(ResponseEntity.status(404).body("User not found"));
         }
 
         User user = userOpt.get();
 
-        if (!passwordEncoder.matches(req.currentPassword(), user.getPasswordHash())) {
-            return ResponseEntity.status(400).body("Current password is incorrect");
-        }
+        return passwordHasher.matches(req.currentPassword(), user.getPasswordHash()).thenCompose(matches -> {
+            if (!matches) {
+                return CompletableFuture.completedFuture(ResponseEntity.status(400).body("Current password is incorrect"));
+            }
+            if (req.newPassword() == null || req.newPassword().length() < 8) {
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("New password must be at least 8 characters"));
+            }
+            return passwordHasher.encode(req.newPassword()).thenApply(newHash -> {
+                user.setPasswordHash(newHash);
+                users.save(user);
+                // Sessions started with the old password must log in again
+                refreshTokens.revokeAll(user.getUsername());
+                return ResponseEntity.ok("Password changed successfully");
+            });
+        });
+    }
 
-        if (req.newPassword() == null || req.newPassword().length() < 8) {
-            return ResponseEntity.badRequest().body("New password must be at least 8 characters");
-        }
+    @ExceptionHandler(PasswordHasher.BusyException.class)
+    public ResponseEntity<?> hashingBusy(PasswordHasher.BusyException e) {
+        return tooManyRequests(1000, "Server busy, please retry");
+    }
 
-        String newHash = passwordEncoder.encode(req.newPassword());
-        user.setPasswordHash(newHash);
-        userRepository.save(user);
-        return ResponseEntity.ok("Password changed successfully");
+    private static ResponseEntity<?> tooManyRequests(long retryAfterMs, String message) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, (retryAfterMs + 999) / 1000)))
+                .body(message);
     }
 
     /**
      * Change password using JWT Authorization header (existing behavior)
      */
     @PostMapping("/change-password")
-    public ResponseEntity<?> changePassword(
+    public CompletableFuture<ResponseEntity<?>> changePassword(
             @RequestHeader(name = "Authorization", required = false) String authorization,
             @RequestBody ChangePasswordRequest req
     ) {
         if (authorization == null || !authorization.startsWith("Bearer ")) {
-            return ResponseEntity.status(401).body("Missing or invalid Authorization header");
+            return CompletableFuture.completedFuture(ResponseEntity.status(401).body("Missing or invalid Authorization header"));
         }
 
         String token = authorization.substring("Bearer ".length());
-        SecretKey key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
         String username;
         try {
-            Claims claims = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+            Claims claims = parser.parseClaimsJws(token).getBody();
             username = claims.getSubject();
         } catch (Exception e) {
-            return ResponseEntity.status(401).body("Invalid token");
+            return CompletableFuture.completedFuture(ResponseEntity.status(401).body("Invalid token"));
         }
 
         return handlePasswordChangeForUser(username, req);
@@ -141,7 +283,7 @@ public class AuthController {
      * Change password using X-User-Name header (assignment requirement)
      */
     @PutMapping("/change-password")
-    public ResponseEntity<?> changePasswordPut(
+    public CompletableFuture<ResponseEntity<?>> changePasswordPut(
             @RequestHeader(name = "X-User-Name") String username,
             @RequestBody ChangePasswordRequest req
     ) {
@@ -0,0 +1,36 @@
+package com.flightapp.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * A refresh token, stored only as a SHA-256 of the opaque value handed to
+ * the client. Tokens rotated from the same login share a {@code familyId};
+ * a used token is marked {@code revoked} rather than deleted so that a
+ * replay of it can be recognised. Mongo drops documents past
+ * {@code expiresAt} through a TTL index.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "refresh_tokens")
+public class RefreshToken {
+    @Id
+    private String id;
+    @Indexed(unique = true)
+    private String tokenHash;
+    @Indexed
+    private String username;
+    @Indexed
+    private String familyId;
+    @Indexed(expireAfterSeconds = 0)
+    private Instant expiresAt;
+    private boolean revoked;
+}
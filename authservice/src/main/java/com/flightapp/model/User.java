@@ -1,6 +1,7 @@
 package com.flightapp.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import lombok.AllArgsConstructor;
@@ -12,9 +13,16 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @Document(collection = "users")
 public class User {
+    // Index names, as reported in duplicate key errors
+    public static final String USERNAME_INDEX = "username";
+    public static final String EMAIL_INDEX = "email";
+
     @Id   
     private String id;
+    @Indexed(name = USERNAME_INDEX, unique = true)
     private String username;
+    // Sparse, since accounts created without an email must not collide on null
+    @Indexed(name = EMAIL_INDEX, unique = true, sparse = true)
     private String email;
     private String passwordHash;
     private String roles; 
@@ -0,0 +1,95 @@
+package com.flightapp.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-username login failure throttle. After {@code max-failures} failed
+ * attempts inside the window, further attempts for that username are
+ * refused without touching the password hash, for a lock period that
+ * doubles with every further failure up to {@code max-lock-ms}. A
+ * successful login clears the record. Entries are kept in a bounded LRU,
+ * so a spray over many usernames cannot grow it without limit.
+ */
+@Component
+public class LoginThrottle {
+
+    private static final class Failures {
+        int count;
+        long windowStart;
+        long lockedUntil;
+    }
+
+    private final int maxFailures;
+    private final long windowMs;
+    private final long baseLockMs;
+    private final long maxLockMs;
+    private final Map<String, Failures> failures;
+    private final Counter throttled;
+
+    public LoginThrottle(MeterRegistry registry,
+                         @Value("${auth.throttle.max-failures:5}") int maxFailures,
+                         @Value("${auth.throttle.window-ms:300000}") long windowMs,
+                         @Value("${auth.throttle.base-lock-ms:30000}") long baseLockMs,
+                         @Value("${auth.throttle.max-lock-ms:900000}") long maxLockMs,
+                         @Value("${auth.throttle.max-users:10000}") int maxUsers) {
+        this.maxFailures = maxFailures;
+        this.windowMs = windowMs;
+        this.baseLockMs = baseLockMs;
+        this.maxLockMs = maxLockMs;
+        this.failures = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Failures> eldest) {
+                return size() > maxUsers;
+            }
+        };
+        this.throttled = Counter.builder("auth.login.throttled").register(registry);
+    }
+
+    /**
+     * @return how long {@code username} must wait before trying again, or 0
+     *         if an attempt may go ahead
+     */
+    public long retryAfterMs(String username) {
+        long now = System.currentTimeMillis();
+        synchronized (failures) {
+            Failures f = failures.get(key(username));
+            if (f == null || f.lockedUntil <= now) {
+                return 0;
+            }
+            throttled.increment();
+            return f.lockedUntil - now;
+        }
+    }
+
+    public void recordFailure(String username) {
+        long now = System.currentTimeMillis();
+        synchronized (failures) {
+            Failures f = failures.computeIfAbsent(key(username), k -> new Failures());
+            if (now - f.windowStart > windowMs && f.lockedUntil <= now) {
+                f.count = 0;
+                f.windowStart = now;
+            }
+            f.count++;
+            if (f.count >= maxFailures) {
+                int over = Math.min(f.count - maxFailures, 20);
+                f.lockedUntil = now + Math.min(maxLockMs, baseLockMs << over);
+            }
+        }
+    }
+
+    public void recordSuccess(String username) {
+        synchronized (failures) {
+            failures.remove(key(username));
+        }
+    }
+
+    private static String key(String username) {
+        return username == null ? "" : username;
+    }
+}
@@ -0,0 +1,95 @@
+package com.flightapp.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs password hashing and verification on a dedicated, bounded pool so
+ * that a burst of logins queues here instead of holding Tomcat threads for
+ * the length of each hash. When the queue is full new work is refused with
+ * {@link BusyException} (answered with 429) rather than piling up.
+ */
+@Service
+public class PasswordHasher {
+
+    /** The hashing queue is full; the caller should retry shortly. */
+    public static class BusyException extends RuntimeException {
+        public BusyException() {
+            super("Password hashing queue is full");
+        }
+    }
+
+    /**
+     * Outcome of a password check. {@code upgradedHash} is a fresh hash of the
+     * password when it matched but was stored with stale parameters, else null.
+     */
+    public record Verification(boolean matches, String upgradedHash) {}
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final Counter rejected;
+
+    public PasswordHasher(PasswordEncoder passwordEncoder,
+                          MeterRegistry registry,
+                          @Value("${auth.hash.threads:0}") int threads,
+                          @Value("${auth.hash.queue-capacity:64}") int queueCapacity) {
+        this.passwordEncoder = passwordEncoder;
+        // Hashing is pure CPU; more threads than cores only adds contention
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                new CustomizableThreadFactory("auth-hash-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.rejected = Counter.builder("auth.hash.rejected").register(registry);
+        Gauge.builder("auth.hash.queued", executor, e -> e.getQueue().size()).register(registry);
+    }
+
+    public CompletableFuture<String> encode(String rawPassword) {
+        return submit(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    public CompletableFuture<Boolean> matches(String rawPassword, String encodedPassword) {
+        return submit(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /** Like {@link #matches}, rehashing in the same task if the stored hash is out of date. */
+    public CompletableFuture<Verification> verify(String rawPassword, String encodedPassword) {
+        return submit(() -> {
+            if (!passwordEncoder.matches(rawPassword, encodedPassword)) {
+                return new Verification(false, null);
+            }
+            String upgraded = passwordEncoder.upgradeEncoding(encodedPassword)
+                    ? passwordEncoder.encode(rawPassword)
+                    : null;
+            return new Verification(true, upgraded);
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> work) {
+        try {
+            return CompletableFuture.supplyAsync(work, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new BusyException();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.flightapp.service;
+
+import com.flightapp.model.RefreshToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Issues, rotates and revokes opaque refresh tokens. A token can be used
+ * once: refreshing marks it revoked and issues its successor in the same
+ * family. Presenting a token that was already used means it has leaked
+ * (or been replayed), so the whole family is revoked and the user has to
+ * log in again. Checking a token is a hash and an indexed lookup; no
+ * password hashing is involved.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    /** A refreshed token and the user it belongs to. */
+    public record Rotation(String username, String refreshToken) {}
+
+    private final MongoTemplate mongo;
+    private final long ttlMs;
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenService(MongoTemplate mongo,
+                               @Value("${app.refresh.ttl:1209600000}") long ttlMs) {
+        this.mongo = mongo;
+        this.ttlMs = ttlMs;
+    }
+
+    /** Starts a new token family, e.g. on login. */
+    public String issue(String username) {
+        return issue(username, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Exchanges {@code presented} for a new token in the same family.
+     *
+     * @return empty if the token is unknown, expired or already used
+     */
+    public Optional<Rotation> rotate(String presented) {
+        if (presented == null || presented.isBlank()) {
+            return Optional.empty();
+        }
+        Query current = new Query(Criteria.where("tokenHash").is(hash(presented))
+                .and("revoked").is(false)
+                .and("expiresAt").gt(Instant.now()));
+        // Atomic, so two concurrent refreshes with the same token cannot both succeed
+        RefreshToken used = mongo.findAndModify(current, new Update().set("revoked", true), RefreshToken.class);
+        if (used != null) {
+            return Optional.of(new Rotation(used.getUsername(), issue(used.getUsername(), used.getFamilyId())));
+        }
+
+        RefreshToken reused = mongo.findOne(new Query(Criteria.where("tokenHash").is(hash(presented))
+                .and("revoked").is(true)), RefreshToken.class);
+        if (reused != null) {
+            logger.warn("Refresh token reuse for {}; revoking its family", reused.getUsername());
+            revokeFamily(reused.getFamilyId());
+        }
+        return Optional.empty();
+    }
+
+    /** Revokes the family {@code presented} belongs to, e.g. on logout. */
+    public void revoke(String presented) {
+        if (presented == null || presented.isBlank()) {
+            return;
+        }
+        RefreshToken token = mongo.findOne(new Query(Criteria.where("tokenHash").is(hash(presented))), RefreshToken.class);
+        if (token != null) {
+            revokeFamily(token.getFamilyId());
+        }
+    }
+
+    /** Revokes every refresh token of {@code username}, e.g. after a password change. */
+    public void revokeAll(String username) {
+        mongo.updateMulti(new Query(Criteria.where("username").is(username).and("revoked").is(false)),
+                new Update().set("revoked", true), RefreshToken.class);
+    }
+
+    private void revokeFamily(String familyId) {
+        mongo.updateMulti(new Query(Criteria.where("familyId").is(familyId).and("revoked").is(false)),
+                new Update().set("revoked", true), RefreshToken.class);
+    }
+
+    private String issue(String username, String familyId) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        mongo.insert(new RefreshToken(null, hash(token), username, familyId,
+                Instant.now().plusMillis(ttlMs), false));
+        return token;
+    }
+
+    // Tokens are 256 random bits, so a plain fast hash is enough to keep them out of the database
+    static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // Every JRE is required to provide SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.flightapp.service;
+
+import com.flightapp.model.User;
+import com.flightapp.repo.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Read-through cache of users by username in front of {@link UserRepository}.
+ * Callers get their own copy, so changing one never touches the cached
+ * record; saves go through {@link #save} so the entry is dropped. Unknown
+ * usernames are not cached. Other instances only notice a change once
+ * their entry is too old to use. Lookups that can tolerate a short delay,
+ * such as roles on token refresh, accept entries up to {@code ttl-ms} old;
+ * password checks go through {@link #findCredentials}, which accepts them
+ * only up to the much shorter {@code credential-ttl-ms}.
+ */
+@Component
+public class UserCache {
+
+    private record Entry(User user, long loadedAt) {}
+
+    private final UserRepository userRepository;
+    private final long ttlMillis;
+    private final long credentialTtlMillis;
+    private final Map<String, Entry> entries;
+
+    public UserCache(UserRepository userRepository,
+                     @Value("${auth.user-cache.ttl-ms:30000}") long ttlMillis,
+                     @Value("${auth.user-cache.credential-ttl-ms:5000}") long credentialTtlMillis,
+                     @Value("${auth.user-cache.max-entries:10000}") int maxEntries) {
+        this.userRepository = userRepository;
+        this.ttlMillis = ttlMillis;
+        this.credentialTtlMillis = Math.min(credentialTtlMillis, ttlMillis);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public Optional<User> findByUsername(String username) {
+        if (username == null) {
+            return Optional.empty();
+        }
+        return cached(username, ttlMillis).or(() -> load(username));
+    }
+
+    /**
+     * The user for a password check. A password changed on another instance
+     * is seen within {@code credential-ttl-ms}; callers that find the
+     * password wrong should {@link #load} and check again, since the cached
+     * hash may be the one that was just replaced.
+     */
+    public Optional<User> findCredentials(String username) {
+        if (username == null) {
+            return Optional.empty();
+        }
+        return cached(username, credentialTtlMillis).or(() -> load(username));
+    }
+
+    /**
+     * Reads the user from Mongo, bypassing the cache, and refreshes the
+     * cached entry. A password changed on another instance is always seen.
+     */
+    public Optional<User> load(String username) {
+        if (username == null) {
+            return Optional.empty();
+        }
+        Optional<User> user = userRepository.findByUsername(username);
+        synchronized (entries) {
+            if (user.isPresent()) {
+                entries.put(username, new Entry(copy(user.get()), System.currentTimeMillis()));
+            } else {
+                entries.remove(username);
+            }
+        }
+        return user;
+    }
+
+    public User save(User user) {
+        invalidate(user.getUsername());
+        User saved = userRepository.save(user);
+        // Again, in case a concurrent read cached the old record during the save
+        invalidate(user.getUsername());
+        return saved;
+    }
+
+    private Optional<User> cached(String username, long maxAgeMillis) {
+        synchronized (entries) {
+            Entry entry = entries.get(username);
+            if (entry != null && System.currentTimeMillis() - entry.loadedAt() < maxAgeMillis) {
+                return Optional.of(copy(entry.user()));
+            }
+        }
+        return Optional.empty();
+    }
+
+    public void invalidate(String username) {
+        synchronized (entries) {
+            entries.remove(username);
+        }
+    }
+
+    private static User copy(User u) {
+        return new User(u.getId(), u.getUsername(), u.getEmail(), u.getPasswordHash(), u.getRoles());
+    }
+}
@@ -0,0 +1,99 @@
+package com.flightapp.controller;
+
+import com.flightapp.config.WebSecurityConfig;
+import com.flightapp.model.User;
+import com.flightapp.repo.UserRepository;
+import com.flightapp.service.LoginThrottle;
+import com.flightapp.service.PasswordHasher;
+import com.flightapp.service.RefreshTokenService;
+import com.flightapp.service.UserCache;
+import com.mongodb.MongoWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.WriteError;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class AuthControllerTest {
+
+    // Low costs keep the test fast
+    private final PasswordEncoder encoder = new WebSecurityConfig().passwordEncoder("bcrypt", 4, 64, 1, 1);
+    private final PasswordHasher hasher = new PasswordHasher(encoder, new SimpleMeterRegistry(), 1, 4);
+    private final UserRepository repo = mock(UserRepository.class);
+    private final LoginThrottle throttle = mock(LoginThrottle.class);
+    private final UserCache users = new UserCache(repo, 60_000, 60_000, 10);
+    private final AuthController controller = new AuthController(users, hasher, throttle,
+            mock(RefreshTokenService.class), "0123456789abcdef0123456789abcdef");
+
+    @AfterEach
+    public void shutdown() {
+        hasher.shutdown();
+    }
+
+    private static DuplicateKeyException duplicate(String serverMessage) {
+        MongoWriteException cause = new MongoWriteException(
+                new WriteError(11000, serverMessage, new BsonDocument()), new ServerAddress());
+        return new DuplicateKeyException("Write operation error", cause);
+    }
+
+    @Test
+    public void violatedIndexIsReadFromTheWriteError() {
+        assertEquals(User.EMAIL_INDEX, AuthController.violatedIndex(duplicate(
+                "E11000 duplicate key error collection: flightdb.users index: email dup key: { email: \"a@b.c\" }")));
+        // A username containing "email" must not be mistaken for the email index
+        assertEquals(User.USERNAME_INDEX, AuthController.violatedIndex(duplicate(
+                "E11000 duplicate key error collection: flightdb.users index: username dup key: { username: \"email\" }")));
+    }
+
+    @Test
+    public void unknownCauseYieldsNoIndex() {
+        assertNull(AuthController.violatedIndex(new DuplicateKeyException("duplicate")));
+    }
+
+    private User alice(String password) {
+        return new User("1", "alice", "alice@example.com", encoder.encode(password), "USER");
+    }
+
+    private int login(String password) {
+        return controller.login(new AuthController.LoginRequest("alice", password)).join().getStatusCode().value();
+    }
+
+    @Test
+    public void repeatedLoginsAreServedFromTheCache() {
+        when(repo.findByUsername("alice")).thenReturn(Optional.of(alice("old-password")));
+
+        assertEquals(200, login("old-password"));
+        assertEquals(200, login("old-password"));
+        verify(repo, times(1)).findByUsername("alice");
+    }
+
+    @Test
+    public void newPasswordWorksBeforeTheCachedEntryExpires() {
+        when(repo.findByUsername("alice")).thenReturn(Optional.of(alice("old-password")));
+        assertEquals(200, login("old-password"));
+
+        // Changed on another instance
+        when(repo.findByUsername("alice")).thenReturn(Optional.of(alice("new-password")));
+
+        assertEquals(200, login("new-password"));
+        verify(throttle, never()).recordFailure("alice");
+        // The entry now holds the new hash
+        assertEquals(401, login("old-password"));
+    }
+
+    @Test
+    public void wrongPasswordIsRefused() {
+        when(repo.findByUsername("alice")).thenReturn(Optional.of(alice("old-password")));
+
+        assertEquals(401, login("not-the-password"));
+        verify(throttle).recordFailure("alice");
+    }
+}
@@ -0,0 +1,62 @@
+package com.flightapp.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoginThrottleTest {
+
+    private static LoginThrottle throttle(int maxUsers) {
+        return new LoginThrottle(new SimpleMeterRegistry(), 3, 60_000, 1_000, 10_000, maxUsers);
+    }
+
+    @Test
+    public void locksUsernameAfterMaxFailures() {
+        LoginThrottle throttle = throttle(100);
+        throttle.recordFailure("alice");
+        throttle.recordFailure("alice");
+        assertEquals(0, throttle.retryAfterMs("alice"));
+
+        throttle.recordFailure("alice");
+        long wait = throttle.retryAfterMs("alice");
+        assertTrue(wait > 0 && wait <= 1_000);
+
+        // Other usernames are unaffected
+        assertEquals(0, throttle.retryAfterMs("bob"));
+    }
+
+    @Test
+    public void lockGrowsWithFurtherFailuresUpToCap() {
+        LoginThrottle throttle = throttle(100);
+        for (int i = 0; i < 4; i++) {
+            throttle.recordFailure("alice");
+        }
+        assertTrue(throttle.retryAfterMs("alice") > 1_000);
+
+        for (int i = 0; i < 20; i++) {
+            throttle.recordFailure("alice");
+        }
+        assertTrue(throttle.retryAfterMs("alice") <= 10_000);
+    }
+
+    @Test
+    public void successClearsFailures() {
+        LoginThrottle throttle = throttle(100);
+        throttle.recordFailure("alice");
+        throttle.recordFailure("alice");
+        throttle.recordSuccess("alice");
+        throttle.recordFailure("alice");
+        assertEquals(0, throttle.retryAfterMs("alice"));
+    }
+
+    @Test
+    public void forgetsLeastRecentlyUsedUsernames() {
+        LoginThrottle throttle = throttle(1);
+        for (int i = 0; i < 3; i++) {
+            throttle.recordFailure("alice");
+        }
+        throttle.recordFailure("bob");
+        assertEquals(0, throttle.retryAfterMs("alice"));
+    }
+}
@@ -0,0 +1,69 @@
+package com.flightapp.service;
+
+import com.flightapp.config.WebSecurityConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PasswordHasherTest {
+
+    private PasswordHasher hasher;
+
+    private PasswordHasher hasher(String algorithm, int bcryptStrength) {
+        // Low costs keep the test fast; only relative parameters matter here
+        PasswordEncoder encoder = new WebSecurityConfig().passwordEncoder(algorithm, bcryptStrength, 64, 1, 1);
+        hasher = new PasswordHasher(encoder, new SimpleMeterRegistry(), 1, 4);
+        return hasher;
+    }
+
+    @AfterEach
+    public void shutdown() {
+        hasher.shutdown();
+    }
+
+    @Test
+    public void upgradesLegacyUnprefixedHash() {
+        String legacy = new BCryptPasswordEncoder(4).encode("secret123");
+
+        PasswordHasher.Verification v = hasher("bcrypt", 4).verify("secret123", legacy).join();
+
+        assertTrue(v.matches());
+        assertNotNull(v.upgradedHash());
+        assertTrue(v.upgradedHash().startsWith("{bcrypt}"));
+    }
+
+    @Test
+    public void upgradesWhenCostWasRaised() {
+        String stored = hasher("bcrypt", 4).encode("secret123").join();
+        hasher.shutdown();
+
+        PasswordHasher.Verification v = hasher("bcrypt", 5).verify("secret123", stored).join();
+
+        assertTrue(v.matches());
+        assertNotNull(v.upgradedHash());
+    }
+
+    @Test
+    public void migratesToConfiguredAlgorithm() {
+        String stored = hasher("bcrypt", 4).encode("secret123").join();
+        hasher.shutdown();
+
+        PasswordHasher.Verification v = hasher("argon2", 4).verify("secret123", stored).join();
+
+        assertTrue(v.matches());
+        assertTrue(v.upgradedHash().startsWith("{argon2}"));
+    }
+
+    @Test
+    public void leavesCurrentHashAloneAndRejectsWrongPassword() {
+        PasswordHasher hasher = hasher("bcrypt", 4);
+        String stored = hasher.encode("secret123").join();
+
+        assertEquals(new PasswordHasher.Verification(true, null), hasher.verify("secret123", stored).join());
+        assertEquals(new PasswordHasher.Verification(false, null), hasher.verify("wrong", stored).join());
+    }
+}
@@ -0,0 +1,73 @@
+package com.flightapp.service;
+
+import com.flightapp.model.RefreshToken;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class RefreshTokenServiceTest {
+
+    private final MongoTemplate mongo = mock(MongoTemplate.class);
+    private final RefreshTokenService service = new RefreshTokenService(mongo, 60_000);
+
+    private RefreshToken stored() {
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(mongo, atLeastOnce()).insert(saved.capture());
+        return saved.getValue();
+    }
+
+    @Test
+    public void storesOnlyTheHashOfIssuedToken() {
+        String token = service.issue("alice");
+
+        RefreshToken saved = stored();
+        assertNotEquals(token, saved.getTokenHash());
+        assertEquals(RefreshTokenService.hash(token), saved.getTokenHash());
+        assertEquals("alice", saved.getUsername());
+        assertTrue(saved.getExpiresAt().isAfter(Instant.now()));
+    }
+
+    @Test
+    public void rotationIssuesSuccessorInSameFamily() {
+        String token = service.issue("alice");
+        RefreshToken first = stored();
+        when(mongo.findAndModify(any(Query.class), any(Update.class), eq(RefreshToken.class))).thenReturn(first);
+
+        Optional<RefreshTokenService.Rotation> rotation = service.rotate(token);
+
+        assertTrue(rotation.isPresent());
+        assertEquals("alice", rotation.get().username());
+        assertNotEquals(token, rotation.get().refreshToken());
+        RefreshToken next = stored();
+        assertEquals(first.getFamilyId(), next.getFamilyId());
+        assertEquals(RefreshTokenService.hash(rotation.get().refreshToken()), next.getTokenHash());
+    }
+
+    @Test
+    public void reusedTokenRevokesFamily() {
+        String token = service.issue("alice");
+        RefreshToken used = stored();
+        used.setRevoked(true);
+        when(mongo.findAndModify(any(Query.class), any(Update.class), eq(RefreshToken.class))).thenReturn(null);
+        when(mongo.findOne(any(Query.class), eq(RefreshToken.class))).thenReturn(used);
+
+        assertTrue(service.rotate(token).isEmpty());
+        verify(mongo).updateMulti(any(Query.class), any(Update.class), eq(RefreshToken.class));
+    }
+
+    @Test
+    public void unknownTokenIsRejected() {
+        assertTrue(service.rotate("nope").isEmpty());
+        assertTrue(service.rotate(null).isEmpty());
+        verify(mongo, never()).updateMulti(any(Query.class), any(Update.class), eq(RefreshToken.class));
+    }
+}
@@ -0,0 +1,99 @@
+package com.flightapp.service;
+
+import com.flightapp.model.User;
+import com.flightapp.repo.UserRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class UserCacheTest {
+
+    private final UserRepository repo = mock(UserRepository.class);
+
+    private static User alice(String hash) {
+        return new User("1", "alice", "alice@example.com", hash, "USER");
+    }
+
+    @Test
+    public void repeatedLookupsHitRepositoryOnce() {
+        when(repo.findByUsername("alice")).thenReturn(Optional.of(alice("h1")));
+        UserCache cache = new UserCache(repo, 60_000, 60_000, 10);
+
+        assertEquals("h1", cache.findByUsername("alice").orElseThrow().getPasswordHash());
+        assertEquals("h1", cache.findByUsername("alice").orElseThrow().getPasswordHash());
+        verify(repo, times(1)).findByUsername("alice");
+    }
+
+    @Test
+    public void callersCannotChangeCachedRecord() {
+        when(repo.findByUsername("alice")).thenReturn(Optional.of(alice("h1")));
+        UserCache cache = new UserCache(repo, 60_000, 60_000, 10);
+
+        cache.findByUsername("alice").orElseThrow().setPasswordHash("tampered");
+        assertEquals("h1", cache.findByUsername("alice").orElseThrow().getPasswordHash());
+    }
+
+    @Test
+    public void saveInvalidates() {
+        when(repo.findByUsername("alice")).thenReturn(Optional.of(alice("h1")));
+        UserCache cache = new UserCache(repo, 60_000, 60_000, 10);
+        User user = cache.findByUsername("alice").orElseThrow();
+
+        user.setPasswordHash("h2");
+        cache.save(user);
+        when(repo.findByUsername("alice")).thenReturn(Optional.of(alice("h2")));
+
+        assertEquals("h2", cache.findByUsername("alice").orElseThrow().getPasswordHash());
+        verify(repo).save(user);
+    }
+
+    @Test
+    public void unknownUsernamesAreNotCached() {
+        when(repo.findByUsername("bob")).thenReturn(Optional.empty());
+        UserCache cache = new UserCache(repo, 60_000, 60_000, 10);
+
+        assertTrue(cache.findByUsername("bob").isEmpty());
+        assertTrue(cache.findByUsername("bob").isEmpty());
+        verify(repo, times(2)).findByUsername("bob");
+    }
+
+    @Test
+    public void loadAlwaysReadsMongoAndRefreshesTheEntry() {
+        when(repo.findByUsername("alice")).thenReturn(Optional.of(alice("h1")));
+        UserCache cache = new UserCache(repo, 60_000, 60_000, 10);
+        cache.findByUsername("alice");
+
+        // Password changed on another instance
+        when(repo.findByUsername("alice")).thenReturn(Optional.of(alice("h2")));
+
+        assertEquals("h2", cache.load("alice").orElseThrow().getPasswordHash());
+        assertEquals("h2", cache.findByUsername("alice").orElseThrow().getPasswordHash());
+        verify(repo, times(2)).findByUsername("alice");
+    }
+
+    @Test
+    public void credentialChecksUseOnlyRecentEntries() {
+        when(repo.findByUsername("alice")).thenReturn(Optional.of(alice("h1")));
+        UserCache cache = new UserCache(repo, 60_000, 0, 10);
+        cache.findByUsername("alice");
+
+        // Password changed on another instance
+        when(repo.findByUsername("alice")).thenReturn(Optional.of(alice("h2")));
+
+        assertEquals("h1", cache.findByUsername("alice").orElseThrow().getPasswordHash());
+        assertEquals("h2", cache.findCredentials("alice").orElseThrow().getPasswordHash());
+    }
+
+    @Test
+    public void repeatedCredentialChecksHitRepositoryOnce() {
+        when(repo.findByUsername("alice")).thenReturn(Optional.of(alice("h1")));
+        UserCache cache = new UserCache(repo, 60_000, 60_000, 10);
+
+        cache.findCredentials("alice");
+        cache.findCredentials("alice");
+        verify(repo, times(1)).findByUsername("alice");
+    }
+}
@@ -3,10 +3,12 @@ package com.flightapp;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 
 @SpringBootApplication
 @EnableFeignClients(basePackages = "com.flightapp.client")
+@EnableScheduling
 public class BookingServiceApplication {
   public static void main(String[] args){ SpringApplication.run(BookingServiceApplication.class,args); }
 }
@@ -45,6 +45,10 @@ public interface FlightClient {
     @PostMapping("/{id}/reserve-seats")
     ResponseEntity<Void> reserveSeats(@PathVariable("id") String id, @RequestBody SeatNumbersRequest req);
 
+    // Checks the flight has not departed and reserves the seats atomically; returns the flight afterwards
+    @PostMapping("/{id}/validate-and-reserve")
+    ResponseEntity<FlightInfo> validateAndReserveSeats(@PathVariable("id") String id, @RequestBody SeatNumbersRequest req);
+
     @PostMapping("/{id}/release-seats")
     ResponseEntity<Void> releaseSeats(@PathVariable("id") String id, @RequestBody SeatNumbersRequest req);
 }
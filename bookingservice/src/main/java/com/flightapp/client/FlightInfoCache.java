@@ -0,0 +1,110 @@
+package com.flightapp.client;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived cache in front of {@link FlightClient#get}. Booking only reads
+ * the flight date and departure time, which rarely change, so a few seconds
+ * of staleness is fine. Concurrent lookups for the same flight share a
+ * single call to flightservice.
+ */
+@Component
+public class FlightInfoCache {
+
+    private record Entry(FlightClient.FlightInfo info, long expiresAt) {}
+
+    private final FlightClient flightClient;
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final Map<String, Entry> entries;
+    private final Map<String, CompletableFuture<FlightClient.FlightInfo>> inFlight = new ConcurrentHashMap<>();
+
+    public FlightInfoCache(FlightClient flightClient,
+                           @Value("${booking.flight-cache.ttl-ms:30000}") long ttlMillis,
+                           @Value("${booking.flight-cache.max-entries:1000}") int maxEntries) {
+        this.flightClient = flightClient;
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > FlightInfoCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @return the flight, or null when flightservice did not return one
+     */
+    public FlightClient.FlightInfo get(String flightId) {
+        synchronized (entries) {
+            Entry entry = entries.get(flightId);
+            if (entry != null && entry.expiresAt() > System.currentTimeMillis()) {
+                return entry.info();
+            }
+        }
+
+        CompletableFuture<FlightClient.FlightInfo> mine = new CompletableFuture<>();
+        CompletableFuture<FlightClient.FlightInfo> pending = inFlight.putIfAbsent(flightId, mine);
+        if (pending != null) {
+            return await(pending);
+        }
+
+        try {
+            FlightClient.FlightInfo info = fetch(flightId);
+            if (info != null) {
+                synchronized (entries) {
+                    entries.put(flightId, new Entry(info, System.currentTimeMillis() + ttlMillis));
+                }
+            }
+            mine.complete(info);
+            return info;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightId, mine);
+        }
+    }
+
+    // Seeds the cache with a snapshot obtained another way, e.g. from a reservation
+    public void put(FlightClient.FlightInfo info) {
+        if (info == null || info.id() == null) return;
+        synchronized (entries) {
+            entries.put(info.id(), new Entry(info, System.currentTimeMillis() + ttlMillis));
+        }
+    }
+
+    public void invalidate(String flightId) {
+        synchronized (entries) {
+            entries.remove(flightId);
+        }
+    }
+
+    private FlightClient.FlightInfo fetch(String flightId) {
+        ResponseEntity<FlightClient.FlightInfo> resp = flightClient.get(flightId);
+        if (resp == null || !resp.getStatusCode().is2xxSuccessful()) {
+            return null;
+        }
+        return resp.getBody();
+    }
+
+    private static FlightClient.FlightInfo await(CompletableFuture<FlightClient.FlightInfo> pending) {
+        try {
+            return pending.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
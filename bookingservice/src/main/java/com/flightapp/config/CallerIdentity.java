@@ -0,0 +1,48 @@
+package com.flightapp.config;
+
+import com.flightapp.security.IdentityHeaders;
+import com.flightapp.security.IdentitySigner;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * The caller as vouched for by the gateway's signed identity headers. Only
+ * a name whose signature checks out and has not expired is returned;
+ * client-supplied or tampered headers are ignored.
+ */
+@Component
+public class CallerIdentity {
+
+    private final IdentitySigner signer;
+
+    public CallerIdentity(@Value("${app.identity.secret:${app.jwt.secret}}") String secret) {
+        this.signer = new IdentitySigner(secret);
+    }
+
+    /**
+     * @return the verified user name, or null if the request carries no valid identity
+     */
+    public String verifiedUser(HttpServletRequest request) {
+        String name = request.getHeader(IdentityHeaders.USER);
+        String roles = request.getHeader(IdentityHeaders.ROLES);
+        String expires = request.getHeader(IdentityHeaders.EXPIRES);
+        String signature = request.getHeader(IdentityHeaders.SIGNATURE);
+        if (name == null || name.isEmpty() || expires == null) {
+            return null;
+        }
+
+        long expiresAt;
+        try {
+            expiresAt = Long.parseLong(expires);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (expiresAt > 0 && expiresAt <= System.currentTimeMillis() / 1000) {
+            return null;
+        }
+        return signer.verify(name, roles, expiresAt, signature) ? name : null;
+    }
+}
@@ -0,0 +1,36 @@
+package com.flightapp.config;
+
+import com.flightapp.model.Booking;
+import com.flightapp.model.IdempotencyRecord;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the indexes declared on the bookingservice documents (auto index
+ * creation is off by default), including the TTL index that expires
+ * idempotency keys.
+ */
+@Component
+public class IndexInitializer implements CommandLineRunner {
+
+    private static final Class<?>[] DOCUMENTS = { Booking.class, IdempotencyRecord.class };
+
+    private final MongoTemplate mongo;
+
+    public IndexInitializer(MongoTemplate mongo) {
+        this.mongo = mongo;
+    }
+
+    @Override
+    public void run(String... args) {
+        MongoPersistentEntityIndexResolver resolver =
+                new MongoPersistentEntityIndexResolver(mongo.getConverter().getMappingContext());
+        for (Class<?> document : DOCUMENTS) {
+            IndexOperations indexOps = mongo.indexOps(document);
+            resolver.resolveIndexFor(document).forEach(indexOps::ensureIndex);
+        }
+    }
+}
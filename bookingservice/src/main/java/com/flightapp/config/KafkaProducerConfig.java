@@ -20,6 +20,19 @@ public class KafkaProducerConfig {
     @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
     private String bootstrapServers;
 
+    @Value("${booking.kafka.linger-ms:5}")
+    private int lingerMs;
+
+    @Value("${booking.kafka.batch-size:32768}")
+    private int batchSize;
+
+    @Value("${booking.kafka.compression-type:lz4}")
+    private String compressionType;
+
+    // Upper bound on how long send() may block waiting for metadata
+    @Value("${booking.kafka.max-block-ms:1000}")
+    private long maxBlockMs;
+
     @Bean
     public ProducerFactory<String, BookingMessage> producerFactory() {
         Map<String, Object> config = new HashMap<>();
@@ -27,6 +40,17 @@ public class KafkaProducerConfig {
         config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
         config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
 
+        // Batch small events together and compress them on the wire
+        config.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        config.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        config.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+
+        // Idempotent producer: broker retries cannot duplicate or reorder events per partition
+        config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        config.put(ProducerConfig.ACKS_CONFIG, "all");
+        config.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+        config.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, maxBlockMs);
+
         return new DefaultKafkaProducerFactory<>(config);
     }
 
@@ -1,11 +1,16 @@
 package com.flightapp.controller;
 
 import com.flightapp.model.Booking;
+import com.flightapp.config.CallerIdentity;
 import com.flightapp.service.BookingService;
+import com.flightapp.service.IdempotencyService;
 
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import jakarta.servlet.http.HttpServletRequest;
 
 import java.util.List;
 
@@ -13,14 +18,38 @@ import java.util.List;
 @RequestMapping("/api")
 public class BookingController {
 
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
     private final BookingService svc;
+    private final IdempotencyService idempotency;
+    private final CallerIdentity callerIdentity;
 
-    public BookingController(BookingService svc) { this.svc = svc; }
+    public BookingController(BookingService svc, IdempotencyService idempotency, CallerIdentity callerIdentity) {
+        this.svc = svc;
+        this.idempotency = idempotency;
+        this.callerIdentity = callerIdentity;
+    }
 
+    // With an Idempotency-Key, a retry gets the first response back instead of a second booking
     @PostMapping("/bookings")
-    public ResponseEntity<Booking> create(@RequestBody Booking req) {
-        Booking saved = svc.createBooking(req);
-        return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+    public ResponseEntity<Booking> create(@RequestBody Booking req,
+                                          @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+                                          HttpServletRequest request) {
+        if (idempotencyKey == null) {
+            Booking saved = svc.createBooking(req);
+            return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+        }
+        // Keys are scoped to the caller the gateway signed for, never to a client-supplied header
+        String caller = callerIdentity.verifiedUser(request);
+        if (caller == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Idempotency-Key requires an authenticated caller");
+        }
+        IdempotencyService.Outcome outcome = idempotency.execute(caller, idempotencyKey, req,
+                bookingId -> svc.createBooking(req, bookingId));
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header(IDEMPOTENT_REPLAYED, String.valueOf(outcome.replayed()))
+                .body(outcome.booking());
     }
 
     @GetMapping("/bookings/{id}")
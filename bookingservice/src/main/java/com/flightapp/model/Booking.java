@@ -3,6 +3,7 @@ package com.flightapp.model;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.index.Indexed;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
 
 import java.time.Instant;
@@ -23,4 +24,14 @@ public class Booking {
     private Instant createdAt;
     private List<Passenger> passengers;
     private List<String> seatNumbers;
+    // Transactional outbox: events written with the booking, drained to Kafka by OutboxRelay
+    @JsonIgnore
+    private List<OutboxEvent> pendingEvents;
+    // When the oldest pending event was written; only set while the outbox is non-empty
+    @JsonIgnore
+    @Indexed(name = "outbox_due", partialFilter = "{ 'outboxSince': { $exists: true } }")
+    private Instant outboxSince;
+    // Lease held by the OutboxRelay instance currently publishing this booking's events
+    @JsonIgnore
+    private Instant outboxClaimedUntil;
 }
\ No newline at end of file
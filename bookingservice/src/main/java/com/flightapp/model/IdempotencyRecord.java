@@ -0,0 +1,37 @@
+package com.flightapp.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * A booking request made with an {@code Idempotency-Key}. The id is the
+ * caller and key together. The booking id is fixed when the key is first
+ * claimed, so whoever finishes the request creates that booking and no
+ * other. While the request runs the record is {@code IN_PROGRESS} and its
+ * lease {@code lockedUntil} is kept renewed; once it succeeds the response
+ * body is kept so retries get the same answer.
+ * Mongo drops the record at {@code expiresAt} through a TTL index.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document("idempotency_keys")
+public class IdempotencyRecord {
+    public static final String IN_PROGRESS = "IN_PROGRESS";
+    public static final String COMPLETED = "COMPLETED";
+
+    @Id
+    private String id;
+    // SHA-256 of the request body, so a key reused for a different request is caught
+    private String requestHash;
+    private String bookingId;
+    private String status;
+    private String responseBody;
+    private Instant lockedUntil;
+    @Indexed(expireAfterSeconds = 0)
+    private Instant expiresAt;
+}
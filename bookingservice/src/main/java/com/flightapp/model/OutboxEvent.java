@@ -0,0 +1,29 @@
+package com.flightapp.model;
+
+import com.flightapp.dto.BookingMessage;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A booking event waiting to be published. Stored inside the booking
+ * document it belongs to, so writing the booking and its event is a single
+ * atomic Mongo operation; {@link com.flightapp.service.OutboxRelay} removes
+ * it once Kafka has acknowledged it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+    private String eventId;
+    private String topic;
+    private BookingMessage payload;
+    private Instant createdAt;
+
+    public static OutboxEvent of(String topic, BookingMessage payload) {
+        return new OutboxEvent(UUID.randomUUID().toString(), topic, payload, Instant.now());
+    }
+}
@@ -4,6 +4,6 @@ import com.flightapp.model.Booking;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import java.util.List;
 
-public interface BookingRepository extends MongoRepository<Booking, String> {
+public interface BookingRepository extends MongoRepository<Booking, String>, BookingRepositoryCustom {
     List<Booking> findByUserEmail(String userEmail);
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.flightapp.repository;
+
+import com.flightapp.model.Booking;
+import com.flightapp.model.OutboxEvent;
+
+import java.time.Instant;
+import java.util.Collection;
+
+public interface BookingRepositoryCustom {
+
+    /**
+     * Marks the booking cancelled and appends the event to its outbox in one
+     * update. Returns the updated booking, or null if it was already cancelled.
+     */
+    Booking cancelWithEvent(String bookingId, OutboxEvent event);
+
+    /**
+     * Claims the booking with the oldest unclaimed outbox until
+     * {@code claimedUntil}, so no other relay publishes its events meanwhile.
+     * Returns the booking with its pending events, or null if none is waiting.
+     */
+    Booking claimOutbox(Instant now, Instant claimedUntil);
+
+    /**
+     * Removes published events from the booking's outbox and gives up the
+     * claim taken by {@link #claimOutbox}. A drained outbox is removed from
+     * the document altogether.
+     */
+    void releaseOutbox(String bookingId, Instant claimedUntil, Collection<String> publishedEventIds);
+
+    /**
+     * When the oldest event still waiting in any outbox was written, claimed
+     * or not, or null if every outbox is empty. Reads one entry of the
+     * {@code outbox_due} index.
+     */
+    Instant oldestOutboxSince();
+}
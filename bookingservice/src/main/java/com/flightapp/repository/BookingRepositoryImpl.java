@@ -0,0 +1,78 @@
+package com.flightapp.repository;
+
+import com.flightapp.model.Booking;
+import com.flightapp.model.OutboxEvent;
+
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+
+public class BookingRepositoryImpl implements BookingRepositoryCustom {
+
+    private final MongoTemplate mongo;
+
+    public BookingRepositoryImpl(MongoTemplate mongo) {
+        this.mongo = mongo;
+    }
+
+    @Override
+    public Booking cancelWithEvent(String bookingId, OutboxEvent event) {
+        Query query = new Query(Criteria.where("_id").is(bookingId).and("status").ne("CANCELLED"));
+        Update update = new Update()
+                .set("status", "CANCELLED")
+                .push("pendingEvents", event)
+                .min("outboxSince", event.getCreatedAt());
+
+        return mongo.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), Booking.class);
+    }
+
+    @Override
+    public Booking claimOutbox(Instant now, Instant claimedUntil) {
+        Query query = new Query(Criteria.where("outboxSince").exists(true)
+                .and("outboxClaimedUntil").not().gte(now))
+                .with(Sort.by("outboxSince"));
+        query.fields().include("pendingEvents", "outboxSince", "outboxClaimedUntil");
+        Update update = new Update().set("outboxClaimedUntil", claimedUntil);
+
+        return mongo.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), Booking.class);
+    }
+
+    @Override
+    public Instant oldestOutboxSince() {
+        Query query = new Query(Criteria.where("outboxSince").exists(true))
+                .with(Sort.by("outboxSince"))
+                .limit(1);
+        query.fields().include("outboxSince");
+        Booking oldest = mongo.findOne(query, Booking.class);
+        return oldest == null ? null : oldest.getOutboxSince();
+    }
+
+    @Override
+    public void releaseOutbox(String bookingId, Instant claimedUntil, Collection<String> publishedEventIds) {
+        Query byId = new Query(Criteria.where("_id").is(bookingId));
+        if (!publishedEventIds.isEmpty()) {
+            Update pull = new Update().pull("pendingEvents",
+                    new Document("eventId", new Document("$in", new ArrayList<>(publishedEventIds))));
+            mongo.updateFirst(byId, pull, Booking.class);
+        }
+
+        // Only an outbox that is still empty is dropped; an event pushed since keeps it
+        Query drained = new Query(Criteria.where("_id").is(bookingId)
+                .orOperator(Criteria.where("pendingEvents").size(0), Criteria.where("pendingEvents").exists(false)));
+        Update unset = new Update().unset("pendingEvents").unset("outboxSince").unset("outboxClaimedUntil");
+        if (mongo.updateFirst(drained, unset, Booking.class).getModifiedCount() > 0) {
+            return;
+        }
+
+        Query stillOurs = new Query(Criteria.where("_id").is(bookingId).and("outboxClaimedUntil").is(claimedUntil));
+        mongo.updateFirst(stillOurs, new Update().unset("outboxClaimedUntil"), Booking.class);
+    }
+}
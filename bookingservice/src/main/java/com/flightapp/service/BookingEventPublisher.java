@@ -0,0 +1,53 @@
+package com.flightapp.service;
+
+import com.flightapp.dto.BookingMessage;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends booking events to Kafka and reports when the broker has
+ * acknowledged them, recording publish latency per topic and outcome.
+ * Retrying is left to the caller; see {@link OutboxRelay}.
+ */
+@Component
+public class BookingEventPublisher {
+
+    private final KafkaTemplate<String, BookingMessage> kafkaTemplate;
+    private final MeterRegistry registry;
+
+    public BookingEventPublisher(KafkaTemplate<String, BookingMessage> kafkaTemplate, MeterRegistry registry) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.registry = registry;
+    }
+
+    /**
+     * @return a future that completes once the broker has acknowledged the
+     *         event, or completes exceptionally if the send failed
+     */
+    public CompletableFuture<Void> publish(String topic, String key, BookingMessage message) {
+        long start = System.nanoTime();
+        try {
+            return kafkaTemplate.send(topic, key, message)
+                    .whenComplete((result, ex) -> record(topic, ex == null ? "success" : "failure", start))
+                    .thenApply(result -> null);
+        } catch (Exception ex) {
+            // send() itself throws when the producer cannot get metadata within max.block.ms
+            record(topic, "failure", start);
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    private void record(String topic, String outcome, long start) {
+        Timer.builder("booking.events.publish.latency")
+                .tag("topic", topic)
+                .tag("outcome", outcome)
+                .register(registry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
@@ -1,21 +1,22 @@
 package com.flightapp.service;
 
 import com.flightapp.model.Booking;
+import com.flightapp.model.OutboxEvent;
 import com.flightapp.repository.BookingRepository;
 import com.flightapp.exception.NotFoundException;
 import com.flightapp.client.FlightClient;
+import com.flightapp.client.FlightInfoCache;
 import com.flightapp.dto.BookingMessage;
 
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.FeignException;
 
 import java.time.Instant;
-import java.time.LocalDate;
 import java.time.Duration;
 import java.util.UUID;
 import java.util.List;
@@ -23,20 +24,22 @@ import java.util.List;
 @Service
 public class BookingService {
 
+    private static final ObjectMapper ERROR_READER = new ObjectMapper();
+
     private final BookingRepository bookingRepo;
     private final FlightClient flightClient;
-    private final KafkaTemplate<String, BookingMessage> kafkaTemplate;
+    private final FlightInfoCache flightInfoCache;
     private final String topic;
     private final long cancellationWindowHours;
 
     public BookingService(BookingRepository bookingRepo,
                           FlightClient flightClient,
-                          KafkaTemplate<String, BookingMessage> kafkaTemplate,
+                          FlightInfoCache flightInfoCache,
                           @Value("${booking.topic:booking.created}") String topic,
                           @Value("${booking.cancellation.hours:24}") long cancellationWindowHours) {
         this.bookingRepo = bookingRepo;
         this.flightClient = flightClient;
-        this.kafkaTemplate = kafkaTemplate;
+        this.flightInfoCache = flightInfoCache;
         this.topic = topic;
         this.cancellationWindowHours = cancellationWindowHours;
     }
@@ -50,7 +53,11 @@ public class BookingService {
     }
 
     public Booking createBooking(Booking req) {
-        String bookingId = UUID.randomUUID().toString();
+        return createBooking(req, UUID.randomUUID().toString());
+    }
+
+    /** Creates the booking under a caller-chosen id, e.g. one reserved for an idempotency key. */
+    public Booking createBooking(Booking req, String bookingId) {
 
         // Validate number of seats matches number of passengers
         if (req.getPassengers() == null || req.getPassengers().isEmpty()) {
@@ -94,47 +101,29 @@ public class BookingService {
             seatNumbersList.add(passenger.getSeatNumber());
         }
 
-        // Validate flight - do not allow booking past flights
-        ResponseEntity<FlightClient.FlightInfo> flightResp = flightClient.get(req.getFlightId());
-        if (!flightResp.getStatusCode().is2xxSuccessful() || flightResp.getBody() == null) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Flight not found");
-        }
-        FlightClient.FlightInfo flightInfo = flightResp.getBody();
-        
-        // Check if flight date is in the past
-        if (flightInfo.flightDate() != null && flightInfo.flightDate().isBefore(LocalDate.now())) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cannot book flights on past dates");
-        }
-        
-        // Check if departure time has already passed
-        if (flightInfo.departureTime() != null && flightInfo.departureTime().isBefore(Instant.now())) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cannot book flights that have already departed");
-        }
-
         // Normalize and validate user email
         if (req.getUserEmail() == null || req.getUserEmail().isBlank()) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "User email is required");
         }
         req.setUserEmail(req.getUserEmail().trim().toLowerCase());
 
-        boolean reserved = reserveFlightSeats(req.getFlightId(), bookingId, seatNumbersList);
-        if (!reserved) throw new ResponseStatusException(HttpStatus.CONFLICT, "Unable to reserve seats");
+        // flightservice rejects past or departed flights and reserves the seats in the same call
+        FlightClient.FlightInfo flightInfo = validateAndReserveSeats(req.getFlightId(), bookingId, seatNumbersList);
+        if (flightInfo == null) throw new ResponseStatusException(HttpStatus.CONFLICT, "Unable to reserve seats");
+        flightInfoCache.put(flightInfo);
 
         req.setId(bookingId);
         req.setStatus("CONFIRMED");
         req.setCreatedAt(Instant.now());
         req.setSeatNumbers(seatNumbersList);
-        Booking saved = bookingRepo.save(req);
 
-        BookingMessage m = new BookingMessage(saved.getId(), saved.getUserEmail(), saved.getFlightId(), saved.getSeats());
-
-        try {
-            kafkaTemplate.send(topic, saved.getId(), m);
-        } catch (Exception e) {
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to publish booking event", e);
-        }
+        // The event is saved inside the booking document, so both are written or neither is
+        BookingMessage m = new BookingMessage(bookingId, req.getUserEmail(), req.getFlightId(), req.getSeats());
+        OutboxEvent event = OutboxEvent.of(topic, m);
+        req.setPendingEvents(new java.util.ArrayList<>(List.of(event)));
+        req.setOutboxSince(event.getCreatedAt());
 
-        return saved;
+        return bookingRepo.save(req);
     }
 
     public Booking cancelBooking(String id) {
@@ -142,9 +131,8 @@ public class BookingService {
         if ("CANCELLED".equalsIgnoreCase(b.getStatus())) return b;
 
         // check cancellation window based on flight departure
-        ResponseEntity<FlightClient.FlightInfo> flightResp = flightClient.get(b.getFlightId());
-        if (flightResp.getStatusCode().is2xxSuccessful() && flightResp.getBody() != null) {
-            FlightClient.FlightInfo flightInfo = flightResp.getBody();
+        FlightClient.FlightInfo flightInfo = flightInfoCache.get(b.getFlightId());
+        if (flightInfo != null) {
             if (flightInfo.departureTime() != null) {
                 Instant cutoff = flightInfo.departureTime().minus(Duration.ofHours(cancellationWindowHours));
                 if (Instant.now().isAfter(cutoff)) {
@@ -158,18 +146,45 @@ public class BookingService {
             : releaseFlight(b.getFlightId(), b.getId(), b.getSeats());
         if (!released) throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Unable to contact flight service");
 
-        b.setStatus("CANCELLED");
-        Booking updated = bookingRepo.save(b);
+        BookingMessage m = new BookingMessage(b.getId(), b.getUserEmail(), b.getFlightId(), b.getSeats());
+        Booking updated = bookingRepo.cancelWithEvent(b.getId(), OutboxEvent.of("booking.cancelled", m));
+        if (updated == null) {
+            // Cancelled concurrently; that request already queued the event
+            return getBooking(id);
+        }
 
-        BookingMessage m = new BookingMessage(updated.getId(), updated.getUserEmail(), updated.getFlightId(), updated.getSeats());
+        return updated;
+    }
 
+    @CircuitBreaker(name = "flight", fallbackMethod = "validateAndReserveFallback")
+    public FlightClient.FlightInfo validateAndReserveSeats(String flightId, String bookingId, java.util.List<String> seatNumbers) {
         try {
-            kafkaTemplate.send("booking.cancelled", updated.getId(), m);
-        } catch (Exception e) {
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to publish booking cancelled event", e);
+            return flightClient.validateAndReserveSeats(flightId, new FlightClient.SeatNumbersRequest(seatNumbers)).getBody();
+        } catch (FeignException e) {
+            // A rejected booking (past flight, seat taken) is the caller's problem, not a flight service outage
+            if (e.status() == HttpStatus.NOT_FOUND.value()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Flight not found");
+            }
+            if (e.status() >= 400 && e.status() < 500) {
+                throw new ResponseStatusException(HttpStatus.valueOf(e.status()), errorMessage(e));
+            }
+            throw e;
         }
+    }
 
-        return updated;
+    public FlightClient.FlightInfo validateAndReserveFallback(String flightId, String bookingId, java.util.List<String> seatNumbers, Throwable t) {
+        if (t instanceof ResponseStatusException rejected) throw rejected;
+        throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Flight service unavailable");
+    }
+
+    private static String errorMessage(FeignException e) {
+        try {
+            String message = ERROR_READER.readTree(e.contentUTF8()).path("message").asText(null);
+            if (message != null && !message.isBlank()) return message;
+        } catch (Exception ignored) {
+            // fall through to the generic message
+        }
+        return "Unable to reserve seats";
     }
 
     @CircuitBreaker(name = "flight", fallbackMethod = "reserveSeatsFallback")
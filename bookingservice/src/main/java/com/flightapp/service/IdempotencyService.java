@@ -0,0 +1,258 @@
+package com.flightapp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flightapp.model.Booking;
+import com.flightapp.model.IdempotencyRecord;
+import com.flightapp.repository.BookingRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import jakarta.annotation.PreDestroy;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Makes booking creation safe to retry. The first request with a given
+ * {@code Idempotency-Key} claims it in Mongo, together with the id the
+ * booking will be saved under, and runs; when it succeeds the booking it
+ * returned is stored with the key. A retry gets that stored booking back
+ * without running again, so flightservice and Kafka see the booking once.
+ * A duplicate that arrives while the first request is still running waits
+ * for its result. A failed request releases the key, so the client can
+ * retry it.
+ * <p>
+ * A running request keeps renewing its lease. A claim is only taken over
+ * once its lease has lapsed (the instance died) and no booking exists
+ * under the reserved id; if one does, it is returned instead, which also
+ * covers a request that saved its booking but could not record the result.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    public static final int MAX_KEY_LENGTH = 255;
+
+    /** The booking to answer with, and whether it is a stored earlier result. */
+    public record Outcome(Booking booking, boolean replayed) {}
+
+    private final MongoTemplate mongo;
+    private final BookingRepository bookingRepo;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration lease;
+    private final long waitMs;
+    private final long pollMs;
+    private final ScheduledExecutorService leaseRenewer =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("idempotency-lease-"));
+    // Same-instance duplicates are woken as soon as the first request finishes instead of polling
+    private final Map<String, CompletableFuture<Void>> running = new ConcurrentHashMap<>();
+
+    public IdempotencyService(MongoTemplate mongo,
+                              BookingRepository bookingRepo,
+                              ObjectMapper objectMapper,
+                              @Value("${booking.idempotency.ttl-hours:24}") long ttlHours,
+                              @Value("${booking.idempotency.lease-ms:30000}") long leaseMs,
+                              @Value("${booking.idempotency.wait-ms:15000}") long waitMs,
+                              @Value("${booking.idempotency.poll-ms:100}") long pollMs) {
+        this.mongo = mongo;
+        this.bookingRepo = bookingRepo;
+        this.objectMapper = objectMapper;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.lease = Duration.ofMillis(leaseMs);
+        this.waitMs = waitMs;
+        this.pollMs = pollMs;
+    }
+
+    /**
+     * Runs {@code create} once per {@code caller} and {@code key}.
+     *
+     * @param caller  the verified caller the key belongs to
+     * @param request the request body, compared against the one first sent with the key
+     * @param create  creates the booking under the given booking id
+     */
+    public Outcome execute(String caller, String key, Booking request, Function<String, Booking> create) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String id = caller + ':' + key;
+        // Hashed before create runs, since createBooking fills in the request
+        String requestHash = hash(request);
+        long deadline = System.currentTimeMillis() + waitMs;
+
+        while (true) {
+            IdempotencyRecord existing = mongo.findById(id, IdempotencyRecord.class);
+            if (existing == null) {
+                String bookingId = UUID.randomUUID().toString();
+                if (claim(id, requestHash, bookingId)) {
+                    return new Outcome(run(id, bookingId, create), false);
+                }
+                continue;
+            }
+            if (!existing.getRequestHash().equals(requestHash)) {
+                throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                        "Idempotency-Key was already used for a different request");
+            }
+            if (IdempotencyRecord.COMPLETED.equals(existing.getStatus())) {
+                return new Outcome(read(existing.getResponseBody()), true);
+            }
+            if (existing.getLockedUntil().isBefore(Instant.now())) {
+                // The claimant stopped renewing; it may still have saved the booking before it died
+                Optional<Booking> saved = bookingRepo.findById(existing.getBookingId());
+                if (saved.isPresent()) {
+                    complete(id, saved.get());
+                    return new Outcome(saved.get(), true);
+                }
+                if (takeOver(id)) {
+                    return new Outcome(run(id, existing.getBookingId(), create), false);
+                }
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                        "A request with this Idempotency-Key is still in progress");
+            }
+            awaitCompletion(id);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        leaseRenewer.shutdownNow();
+    }
+
+    private boolean claim(String id, String requestHash, String bookingId) {
+        Instant now = Instant.now();
+        try {
+            mongo.insert(new IdempotencyRecord(id, requestHash, bookingId, IdempotencyRecord.IN_PROGRESS, null,
+                    now.plus(lease), now.plus(ttl)));
+            return true;
+        } catch (DuplicateKeyException e) {
+            // Another request claimed it first
+            return false;
+        }
+    }
+
+    private boolean takeOver(String id) {
+        Query stale = new Query(Criteria.where("_id").is(id)
+                .and("status").is(IdempotencyRecord.IN_PROGRESS)
+                .and("lockedUntil").lt(Instant.now()));
+        return mongo.updateFirst(stale, new Update().set("lockedUntil", Instant.now().plus(lease)),
+                IdempotencyRecord.class).getModifiedCount() == 1;
+    }
+
+    private Booking run(String id, String bookingId, Function<String, Booking> create) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        running.put(id, done);
+        long renewEvery = Math.max(1, lease.toMillis() / 3);
+        ScheduledFuture<?> renewal = leaseRenewer.scheduleAtFixedRate(() -> renew(id), renewEvery, renewEvery, TimeUnit.MILLISECONDS);
+        try {
+            Booking booking;
+            try {
+                booking = create.apply(bookingId);
+            } catch (RuntimeException e) {
+                mongo.remove(new Query(Criteria.where("_id").is(id).and("status").is(IdempotencyRecord.IN_PROGRESS)),
+                        IdempotencyRecord.class);
+                throw e;
+            }
+            try {
+                complete(id, booking);
+            } catch (DataAccessException e) {
+                // The booking exists under the reserved id; a retry finds it once the lease lapses
+                logger.warn("Could not record result for idempotency key {}", id, e);
+            }
+            return booking;
+        } finally {
+            renewal.cancel(false);
+            running.remove(id, done);
+            done.complete(null);
+        }
+    }
+
+    private void renew(String id) {
+        try {
+            mongo.updateFirst(new Query(Criteria.where("_id").is(id).and("status").is(IdempotencyRecord.IN_PROGRESS)),
+                    new Update().set("lockedUntil", Instant.now().plus(lease)), IdempotencyRecord.class);
+        } catch (RuntimeException e) {
+            logger.warn("Could not renew lease for idempotency key {}", id, e);
+        }
+    }
+
+    private void complete(String id, Booking booking) {
+        mongo.updateFirst(new Query(Criteria.where("_id").is(id)),
+                new Update().set("status", IdempotencyRecord.COMPLETED).set("responseBody", write(booking)),
+                IdempotencyRecord.class);
+    }
+
+    private void awaitCompletion(String id) {
+        CompletableFuture<Void> local = running.get(id);
+        try {
+            if (local != null) {
+                local.get(pollMs, TimeUnit.MILLISECONDS);
+            } else {
+                Thread.sleep(pollMs);
+            }
+        } catch (TimeoutException | ExecutionException e) {
+            // Check the record again
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while waiting for the original request");
+        }
+    }
+
+    private String hash(Booking request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // Every JRE is required to provide SHA-256
+            throw new IllegalStateException(e);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize booking request", e);
+        }
+    }
+
+    private String write(Booking booking) {
+        try {
+            return objectMapper.writeValueAsString(booking);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize booking", e);
+        }
+    }
+
+    private Booking read(String body) {
+        try {
+            return objectMapper.readValue(body, Booking.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot read stored booking", e);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.flightapp.service;
+
+import com.flightapp.model.Booking;
+import com.flightapp.model.OutboxEvent;
+import com.flightapp.repository.BookingRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains booking outboxes to Kafka in the background. Each poll claims the
+ * bookings with the oldest pending events for a lease, publishes each
+ * booking's events one after another in the order they were written, keyed
+ * by booking id, and removes only the acknowledged prefix. Events after a
+ * failed one are not sent and stay queued for the next poll, so delivery is
+ * at-least-once and ordered per booking. The claim keeps other instances off
+ * a booking until it is released or the lease runs out.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final BookingRepository bookingRepo;
+    private final BookingEventPublisher publisher;
+    private final int batchSize;
+    private final long sendTimeoutMs;
+    private final long leaseMs;
+
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final Counter relayed;
+    private final Counter failed;
+
+    public OutboxRelay(BookingRepository bookingRepo,
+                       BookingEventPublisher publisher,
+                       MeterRegistry registry,
+                       @Value("${booking.outbox.batch-size:100}") int batchSize,
+                       @Value("${booking.outbox.send-timeout-ms:10000}") long sendTimeoutMs,
+                       @Value("${booking.outbox.lease-ms:60000}") long leaseMs) {
+        this.bookingRepo = bookingRepo;
+        this.publisher = publisher;
+        this.batchSize = batchSize;
+        this.sendTimeoutMs = sendTimeoutMs;
+        this.leaseMs = leaseMs;
+
+        this.relayed = Counter.builder("booking.outbox.relayed").register(registry);
+        this.failed = Counter.builder("booking.outbox.failed").register(registry);
+        Gauge.builder("booking.outbox.lag", lagMillis, AtomicLong::get)
+                .baseUnit("milliseconds")
+                .description("Age of the oldest event still waiting in the outbox")
+                .register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${booking.outbox.poll-interval-ms:500}")
+    public void drain() {
+        // Mongo keeps dates to the millisecond; the lease is matched again on release
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        Instant claimedUntil = now.plusMillis(leaseMs);
+        List<Booking> batch = new ArrayList<>();
+        while (batch.size() < batchSize) {
+            Booking claimed = bookingRepo.claimOutbox(now, claimedUntil);
+            if (claimed == null) break;
+            if (claimed.getPendingEvents() == null) claimed.setPendingEvents(List.of());
+            batch.add(claimed);
+        }
+
+        // Bookings are sent side by side so the producer can batch them; within a booking
+        // each event is only sent once the previous one is acknowledged
+        List<List<CompletableFuture<Void>>> sends = new ArrayList<>(batch.size());
+        for (Booking b : batch) {
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            CompletableFuture<Void> previous = CompletableFuture.completedFuture(null);
+            for (OutboxEvent e : b.getPendingEvents()) {
+                previous = previous.thenCompose(v -> publisher.publish(e.getTopic(), b.getId(), e.getPayload()));
+                futures.add(previous);
+            }
+            sends.add(futures);
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            Booking b = batch.get(i);
+            List<String> acked = ackedPrefix(b, sends.get(i));
+            bookingRepo.releaseOutbox(b.getId(), claimedUntil, acked);
+            relayed.increment(acked.size());
+        }
+        updateLag();
+    }
+
+    private List<String> ackedPrefix(Booking b, List<CompletableFuture<Void>> futures) {
+        List<String> acked = new ArrayList<>();
+        for (int i = 0; i < futures.size(); i++) {
+            OutboxEvent e = b.getPendingEvents().get(i);
+            try {
+                futures.get(i).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+                acked.add(e.getEventId());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception ex) {
+                failed.increment();
+                logger.warn("Publishing {} event for booking {} failed, will retry", e.getTopic(), b.getId(), ex);
+                break;
+            }
+        }
+        return acked;
+    }
+
+    // Across all instances, including bookings claimed elsewhere or left behind by a failed send
+    private void updateLag() {
+        Instant oldest = bookingRepo.oldestOutboxSince();
+        lagMillis.set(oldest == null ? 0 : Math.max(0, Duration.between(oldest, Instant.now()).toMillis()));
+    }
+}
@@ -0,0 +1,42 @@
+package com.flightapp.client;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.*;
+
+public class FlightInfoCacheTest {
+
+    @Test
+    public void repeatedLookupsHitFlightServiceOnce() {
+        FlightClient client = Mockito.mock(FlightClient.class);
+        FlightClient.FlightInfo fi = new FlightClient.FlightInfo(
+                "f1", "BLR", "DEL", 100, 100, LocalDate.now().plusDays(1), Instant.now().plusSeconds(86400)
+        );
+        when(client.get("f1")).thenReturn(ResponseEntity.ok(fi));
+
+        FlightInfoCache cache = new FlightInfoCache(client, 30000L, 100);
+
+        assertEquals(fi, cache.get("f1"));
+        assertEquals(fi, cache.get("f1"));
+        verify(client, times(1)).get("f1");
+    }
+
+    @Test
+    public void missingFlightIsNotCached() {
+        FlightClient client = Mockito.mock(FlightClient.class);
+        when(client.get("nope")).thenReturn(ResponseEntity.notFound().build());
+
+        FlightInfoCache cache = new FlightInfoCache(client, 30000L, 100);
+
+        assertNull(cache.get("nope"));
+        assertNull(cache.get("nope"));
+        verify(client, times(2)).get("nope");
+    }
+}
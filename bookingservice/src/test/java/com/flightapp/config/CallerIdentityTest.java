@@ -0,0 +1,37 @@
+package com.flightapp.config;
+
+import com.flightapp.security.IdentityHeaders;
+import com.flightapp.security.IdentitySigner;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CallerIdentityTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+    private static MockHttpServletRequest request(String user, long expires, String signature) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(IdentityHeaders.USER, user);
+        request.addHeader(IdentityHeaders.ROLES, "USER");
+        request.addHeader(IdentityHeaders.EXPIRES, Long.toString(expires));
+        request.addHeader(IdentityHeaders.SIGNATURE, signature);
+        return request;
+    }
+
+    @Test
+    public void acceptsOnlyCorrectlySignedUnexpiredIdentity() {
+        CallerIdentity identity = new CallerIdentity(SECRET);
+        IdentitySigner signer = new IdentitySigner(SECRET);
+        long expires = System.currentTimeMillis() / 1000 + 60;
+
+        assertEquals("alice", identity.verifiedUser(request("alice", expires, signer.sign("alice", "USER", expires))));
+        // Spoofed user with someone else's signature
+        assertNull(identity.verifiedUser(request("mallory", expires, signer.sign("alice", "USER", expires))));
+        long past = System.currentTimeMillis() / 1000 - 1;
+        assertNull(identity.verifiedUser(request("alice", past, signer.sign("alice", "USER", past))));
+        assertNull(identity.verifiedUser(new MockHttpServletRequest()));
+    }
+}
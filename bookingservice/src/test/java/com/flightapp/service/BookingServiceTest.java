@@ -1,14 +1,14 @@
 package com.flightapp.service;
 
 import com.flightapp.model.Booking;
+import com.flightapp.model.Passenger;
 import com.flightapp.repository.BookingRepository;
 import com.flightapp.client.FlightClient;
-import com.flightapp.dto.BookingMessage;
+import com.flightapp.client.FlightInfoCache;
 
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.http.ResponseEntity;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.Instant;
@@ -22,13 +22,13 @@ import static org.mockito.Mockito.*;
 
 public class BookingServiceTest {
 
+
     @Test
     public void createBookingRejectsPastFlight() {
         BookingRepository repo = Mockito.mock(BookingRepository.class);
         FlightClient client = Mockito.mock(FlightClient.class);
-        KafkaTemplate<String, BookingMessage> k = Mockito.mock(KafkaTemplate.class);
 
-        BookingService svc = new BookingService(repo, client, k, "topic", 24L);
+        BookingService svc = new BookingService(repo, client, new FlightInfoCache(client, 30000L, 100), "topic", 24L);
 
         // flight in past
         FlightClient.FlightInfo fi = new FlightClient.FlightInfo(
@@ -36,7 +36,7 @@ public class BookingServiceTest {
         );
         when(client.get("f1")).thenReturn(ResponseEntity.ok(fi));
 
-        Booking req = new Booking(null, "f1", "u@example.com", 1, null, Instant.now(), java.util.Collections.emptyList(), null);
+        Booking req = new Booking(null, "f1", "u@example.com", 1, null, Instant.now(), java.util.Collections.emptyList(), null, null, null, null);
 
         assertThrows(ResponseStatusException.class, () -> svc.createBooking(req));
     }
@@ -45,9 +45,8 @@ public class BookingServiceTest {
     public void cancelBookingRejectsWithinWindow() {
         BookingRepository repo = Mockito.mock(BookingRepository.class);
         FlightClient client = Mockito.mock(FlightClient.class);
-        KafkaTemplate<String, BookingMessage> k = Mockito.mock(KafkaTemplate.class);
 
-        Booking existing = new Booking("b1", "f1", "u@example.com", 2, "CONFIRMED", Instant.now(), java.util.Collections.emptyList(), null);
+        Booking existing = new Booking("b1", "f1", "u@example.com", 2, "CONFIRMED", Instant.now(), java.util.Collections.emptyList(), null, null, null, null);
         when(repo.findById("b1")).thenReturn(java.util.Optional.of(existing));
 
         // flight departs in 1 hour
@@ -56,7 +55,7 @@ public class BookingServiceTest {
         );
         when(client.get("f1")).thenReturn(ResponseEntity.ok(fi));
 
-        BookingService svc = new BookingService(repo, client, k, "topic", 24L);
+        BookingService svc = new BookingService(repo, client, new FlightInfoCache(client, 30000L, 100), "topic", 24L);
 
         assertThrows(ResponseStatusException.class, () -> svc.cancelBooking("b1"));
     }
@@ -65,9 +64,8 @@ public class BookingServiceTest {
     public void cancelBookingSucceedsOutsideWindow() {
         BookingRepository repo = Mockito.mock(BookingRepository.class);
         FlightClient client = Mockito.mock(FlightClient.class);
-        KafkaTemplate<String, BookingMessage> k = Mockito.mock(KafkaTemplate.class);
 
-        Booking existing = new Booking("b2", "f2", "u@example.com", 1, "CONFIRMED", Instant.now(), java.util.Collections.emptyList(), null);
+        Booking existing = new Booking("b2", "f2", "u@example.com", 1, "CONFIRMED", Instant.now(), java.util.Collections.emptyList(), null, null, null, null);
         when(repo.findById("b2")).thenReturn(java.util.Optional.of(existing));
 
         // flight departs in 48 hours
@@ -79,13 +77,40 @@ public class BookingServiceTest {
         // release call should return ok
         when(client.release(eq("f2"), any())).thenReturn(ResponseEntity.ok(null));
 
-        when(repo.save(any())).thenAnswer(i -> i.getArgument(0));
+        Booking cancelled = new Booking("b2", "f2", "u@example.com", 1, "CANCELLED", existing.getCreatedAt(), java.util.Collections.emptyList(), null, null, null, null);
+        when(repo.cancelWithEvent(eq("b2"), any())).thenReturn(cancelled);
 
-        BookingService svc = new BookingService(repo, client, k, "topic", 24L);
+        BookingService svc = new BookingService(repo, client, new FlightInfoCache(client, 30000L, 100), "topic", 24L);
 
         Booking updated = svc.cancelBooking("b2");
 
         assertEquals("CANCELLED", updated.getStatus());
-        verify(k).send(eq("booking.cancelled"), eq("b2"), any(BookingMessage.class));
+        verify(repo).cancelWithEvent(eq("b2"), argThat(e -> "booking.cancelled".equals(e.getTopic())));
+    }
+
+    @Test
+    public void createBookingValidatesAndReservesInOneCall() {
+        BookingRepository repo = Mockito.mock(BookingRepository.class);
+        FlightClient client = Mockito.mock(FlightClient.class);
+
+        FlightClient.FlightInfo fi = new FlightClient.FlightInfo(
+                "f3", "BLR", "DEL", 100, 99, LocalDate.now().plusDays(2), Instant.now().plus(Duration.ofHours(48))
+        );
+        when(client.validateAndReserveSeats(eq("f3"), any())).thenReturn(ResponseEntity.ok(fi));
+        when(repo.save(any())).thenAnswer(i -> i.getArgument(0));
+
+        BookingService svc = new BookingService(repo, client, new FlightInfoCache(client, 30000L, 100), "topic", 24L);
+
+        Passenger p = new Passenger("Asha", "asha@example.com", "9999999999", "P123", 30, "12C");
+        Booking req = new Booking(null, "f3", "U@Example.com", 1, null, null, java.util.List.of(p), null, null, null, null);
+
+        Booking saved = svc.createBooking(req);
+
+        assertEquals("CONFIRMED", saved.getStatus());
+        assertEquals("u@example.com", saved.getUserEmail());
+        assertEquals(1, saved.getPendingEvents().size());
+        assertEquals("topic", saved.getPendingEvents().get(0).getTopic());
+        verify(client, never()).get(any());
+        verify(client, never()).reserveSeats(any(), any());
     }
 }
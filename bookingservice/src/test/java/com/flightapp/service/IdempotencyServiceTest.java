@@ -0,0 +1,157 @@
+package com.flightapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flightapp.model.Booking;
+import com.flightapp.model.IdempotencyRecord;
+import com.flightapp.repository.BookingRepository;
+
+import com.mongodb.client.result.UpdateResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class IdempotencyServiceTest {
+
+    private final MongoTemplate mongo = mock(MongoTemplate.class);
+    private final BookingRepository bookingRepo = mock(BookingRepository.class);
+    private final ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+    private final IdempotencyService service = new IdempotencyService(mongo, bookingRepo, mapper, 24, 60_000, 200, 10);
+
+    @AfterEach
+    public void shutdown() {
+        service.shutdown();
+    }
+
+    private static Booking request(int seats) {
+        return new Booking(null, "f1", "u@example.com", seats, null, null, null, null, null, null, null);
+    }
+
+    private static Booking created(String bookingId) {
+        return new Booking(bookingId, "f1", "u@example.com", 1, "CONFIRMED", Instant.now(), null, null, null, null, null);
+    }
+
+    private IdempotencyRecord claimed() {
+        ArgumentCaptor<IdempotencyRecord> inserted = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(mongo).insert(inserted.capture());
+        return inserted.getValue();
+    }
+
+    @Test
+    public void retryReturnsStoredBookingWithoutCreatingAgain() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        IdempotencyService.Outcome first = service.execute("alice", "k1", request(1), id -> {
+            calls.incrementAndGet();
+            return created(id);
+        });
+        assertFalse(first.replayed());
+
+        IdempotencyRecord record = claimed();
+        assertEquals("alice:k1", record.getId());
+        assertEquals(record.getBookingId(), first.booking().getId());
+        record.setStatus(IdempotencyRecord.COMPLETED);
+        record.setResponseBody(mapper.writeValueAsString(first.booking()));
+        when(mongo.findById("alice:k1", IdempotencyRecord.class)).thenReturn(record);
+
+        IdempotencyService.Outcome retry = service.execute("alice", "k1", request(1), id -> {
+            calls.incrementAndGet();
+            return created(id);
+        });
+
+        assertTrue(retry.replayed());
+        assertEquals(first.booking().getId(), retry.booking().getId());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void keyReusedForDifferentRequestIsRejected() {
+        service.execute("alice", "k1", request(1), IdempotencyServiceTest::created);
+        IdempotencyRecord record = claimed();
+        when(mongo.findById("alice:k1", IdempotencyRecord.class)).thenReturn(record);
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> service.execute("alice", "k1", request(2), IdempotencyServiceTest::created));
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, e.getStatusCode());
+    }
+
+    @Test
+    public void failedRequestReleasesKey() {
+        assertThrows(ResponseStatusException.class, () -> service.execute("alice", "k1", request(1), id -> {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Seat taken");
+        }));
+        verify(mongo).remove(any(Query.class), eq(IdempotencyRecord.class));
+    }
+
+    @Test
+    public void duplicateGivesUpWhileFirstIsStillRunning() {
+        service.execute("alice", "k1", request(1), IdempotencyServiceTest::created);
+        IdempotencyRecord running = claimed();
+        when(mongo.findById("alice:k1", IdempotencyRecord.class)).thenReturn(running);
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> service.execute("alice", "k1", request(1), IdempotencyServiceTest::created));
+        assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+    }
+
+    @Test
+    public void bookingIsReturnedEvenIfResultCannotBeRecorded() {
+        when(mongo.updateFirst(any(Query.class), any(Update.class), eq(IdempotencyRecord.class)))
+                .thenThrow(new DataAccessResourceFailureException("mongo down"));
+
+        IdempotencyService.Outcome outcome = service.execute("alice", "k1", request(1), IdempotencyServiceTest::created);
+
+        assertEquals(claimed().getBookingId(), outcome.booking().getId());
+        verify(mongo, never()).remove(any(Query.class), eq(IdempotencyRecord.class));
+    }
+
+    @Test
+    public void lapsedClaimWithSavedBookingIsNotBookedAgain() {
+        IdempotencyRecord stale = new IdempotencyRecord("alice:k1", null, "b1", IdempotencyRecord.IN_PROGRESS, null,
+                Instant.now().minusSeconds(5), Instant.now().plusSeconds(3600));
+        // Same request hash as the retry below
+        service.execute("bob", "k0", request(1), IdempotencyServiceTest::created);
+        stale.setRequestHash(claimed().getRequestHash());
+        when(mongo.findById("alice:k1", IdempotencyRecord.class)).thenReturn(stale);
+        when(bookingRepo.findById("b1")).thenReturn(Optional.of(created("b1")));
+
+        AtomicInteger calls = new AtomicInteger();
+        IdempotencyService.Outcome outcome = service.execute("alice", "k1", request(1), id -> {
+            calls.incrementAndGet();
+            return created(id);
+        });
+
+        assertTrue(outcome.replayed());
+        assertEquals("b1", outcome.booking().getId());
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    public void lapsedClaimWithoutBookingIsTakenOverUnderSameBookingId() {
+        IdempotencyRecord stale = new IdempotencyRecord("alice:k1", null, "b1", IdempotencyRecord.IN_PROGRESS, null,
+                Instant.now().minusSeconds(5), Instant.now().plusSeconds(3600));
+        service.execute("bob", "k0", request(1), IdempotencyServiceTest::created);
+        stale.setRequestHash(claimed().getRequestHash());
+        when(mongo.findById("alice:k1", IdempotencyRecord.class)).thenReturn(stale);
+        when(bookingRepo.findById("b1")).thenReturn(Optional.empty());
+        when(mongo.updateFirst(any(Query.class), any(Update.class), eq(IdempotencyRecord.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        IdempotencyService.Outcome outcome = service.execute("alice", "k1", request(1), IdempotencyServiceTest::created);
+
+        assertFalse(outcome.replayed());
+        assertEquals("b1", outcome.booking().getId());
+    }
+}
@@ -0,0 +1,102 @@
+package com.flightapp.service;
+
+import com.flightapp.dto.BookingMessage;
+import com.flightapp.model.Booking;
+import com.flightapp.model.OutboxEvent;
+import com.flightapp.repository.BookingRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class OutboxRelayTest {
+
+    private final BookingRepository repo = Mockito.mock(BookingRepository.class);
+    private final BookingEventPublisher publisher = Mockito.mock(BookingEventPublisher.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final OutboxRelay relay = new OutboxRelay(repo, publisher, registry, 10, 1000L, 60000L);
+
+    private static Booking withEvents(String id, OutboxEvent... events) {
+        Booking b = new Booking();
+        b.setId(id);
+        b.setPendingEvents(List.of(events));
+        return b;
+    }
+
+    private static OutboxEvent event(String id, String topic) {
+        return new OutboxEvent(id, topic, new BookingMessage(), Instant.now());
+    }
+
+    @Test
+    public void publishesClaimedEventsAndReleasesTheClaim() {
+        when(repo.claimOutbox(any(), any()))
+                .thenReturn(withEvents("b1", event("e1", "booking.created"), event("e2", "booking.cancelled")))
+                .thenReturn(null);
+        when(publisher.publish(anyString(), anyString(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        relay.drain();
+
+        ArgumentCaptor<Instant> claimedUntil = ArgumentCaptor.forClass(Instant.class);
+        verify(repo, times(2)).claimOutbox(any(), claimedUntil.capture());
+        verify(repo).releaseOutbox("b1", claimedUntil.getValue(), List.of("e1", "e2"));
+    }
+
+    @Test
+    public void stopsAtFirstFailureAndKeepsTheRest() {
+        when(repo.claimOutbox(any(), any()))
+                .thenReturn(withEvents("b1", event("e1", "booking.created"), event("e2", "booking.cancelled")))
+                .thenReturn(null);
+        when(publisher.publish(eq("booking.created"), anyString(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        relay.drain();
+
+        verify(publisher, never()).publish(eq("booking.cancelled"), anyString(), any());
+        verify(repo).releaseOutbox(eq("b1"), any(), eq(List.of()));
+    }
+
+    @Test
+    public void claimsNoMoreThanOneBatch() {
+        when(repo.claimOutbox(any(), any())).thenAnswer(inv -> withEvents("b", event("e", "booking.created")));
+        when(publisher.publish(anyString(), anyString(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        relay.drain();
+
+        verify(repo, times(10)).claimOutbox(any(), any());
+        assertEquals(10, Mockito.mockingDetails(repo).getInvocations().stream()
+                .filter(inv -> inv.getMethod().getName().equals("releaseOutbox")).count());
+    }
+
+    @Test
+    public void lagIsTheOldestPendingEventAcrossAllInstances() {
+        // Nothing left to claim here: another instance holds the waiting bookings
+        when(repo.claimOutbox(any(), any())).thenReturn(null);
+        when(repo.oldestOutboxSince()).thenReturn(Instant.now().minusSeconds(30));
+
+        relay.drain();
+
+        assertTrue(registry.get("booking.outbox.lag").gauge().value() >= 30_000);
+    }
+
+    @Test
+    public void lagIsZeroOnceEveryOutboxIsEmpty() {
+        when(repo.claimOutbox(any(), any())).thenReturn(null);
+        when(repo.oldestOutboxSince()).thenReturn(null);
+
+        relay.drain();
+
+        assertEquals(0, registry.get("booking.outbox.lag").gauge().value());
+    }
+}
@@ -3,6 +3,7 @@ package com.flightapp.config;
 import com.flightapp.dto.BookingMessage;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import io.micrometer.core.instrument.MeterRegistry;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -11,7 +12,9 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.MicrometerConsumerListener;
 
+import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.listener.DefaultErrorHandler;
 
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
@@ -26,9 +29,16 @@ public class KafkaConsumerConfig {
     @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
     private String bootstrapServers;
 
+    // Listener threads per container; throughput scales with this up to the partition count
+    @Value("${email.kafka.concurrency:3}")
+    private int concurrency;
+
+    @Value("${email.kafka.max-poll-records:100}")
+    private int maxPollRecords;
+
     // Use the shared DTO type in the generics
     @Bean
-    public ConsumerFactory<String, BookingMessage> consumerFactory() {
+    public ConsumerFactory<String, BookingMessage> consumerFactory(MeterRegistry registry) {
 
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
@@ -50,19 +60,33 @@ public class KafkaConsumerConfig {
         // Group id can be set here or via properties
         props.put(ConsumerConfig.GROUP_ID_CONFIG, "email-group");
 
-        return new DefaultKafkaConsumerFactory<>(props);
+        // Offsets are committed by the container once a batch has been sent
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+
+        DefaultKafkaConsumerFactory<String, BookingMessage> factory = new DefaultKafkaConsumerFactory<>(props);
+        // Client metrics include records-lag per topic, i.e. the depth of each retry tier
+        factory.addListener(new MicrometerConsumerListener<>(registry));
+        return factory;
     }
 
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, BookingMessage> kafkaListenerContainerFactory(
-            ConsumerFactory<String, BookingMessage> consumerFactory) {
+            ConsumerFactory<String, BookingMessage> consumerFactory,
+            DefaultErrorHandler emailErrorHandler) {
 
         ConcurrentKafkaListenerContainerFactory<String, BookingMessage> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory);
 
-        // Simple error handler (adjust backoff/DLQ as needed)
-        factory.setCommonErrorHandler(new DefaultErrorHandler());
+        // Listeners receive the whole poll and forward any failed records to the retry tier
+        // themselves; the batch is committed only after the listener returns
+        factory.setBatchListener(true);
+        factory.setConcurrency(concurrency);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+
+        // Failed records go to the retry tiers instead of being retried in place; see KafkaRetryConfig
+        factory.setCommonErrorHandler(emailErrorHandler);
 
         return factory;
     }
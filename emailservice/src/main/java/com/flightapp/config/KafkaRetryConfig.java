@@ -0,0 +1,114 @@
+package com.flightapp.config;
+
+import com.flightapp.dto.BookingMessage;
+import com.flightapp.email.EmailRetryTopics;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.util.backoff.FixedBackOff;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Non-blocking retries for email listeners. A failed record is never retried
+ * in place: it is forwarded straight to the next retry tier (or the DLT) and
+ * the partition moves on, so one bad message does not hold up the ones
+ * behind it. Tier topics are consumed by {@code EmailRetryListener}.
+ */
+@Configuration
+public class KafkaRetryConfig {
+
+    @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
+    private String bootstrapServers;
+
+    @Value("${email.kafka.retry-concurrency:1}")
+    private int retryConcurrency;
+
+    @Value("${email.retry.topic-partitions:3}")
+    private int topicPartitions;
+
+    @Bean
+    public ProducerFactory<String, BookingMessage> producerFactory() {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        // Forwarded records keep their own type; consumers read them with a default type
+        config.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+        config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        config.put(ProducerConfig.ACKS_CONFIG, "all");
+        return new DefaultKafkaProducerFactory<>(config);
+    }
+
+    @Bean
+    public KafkaTemplate<String, BookingMessage> kafkaTemplate(ProducerFactory<String, BookingMessage> producerFactory) {
+        return new KafkaTemplate<>(producerFactory);
+    }
+
+    // Forwards a failed record to its next retry tier; also used directly by EmailListener for batches
+    @Bean
+    public DeadLetterPublishingRecoverer emailRetryRecoverer(KafkaTemplate<String, BookingMessage> kafkaTemplate,
+                                                             EmailRetryTopics retryTopics) {
+        DeadLetterPublishingRecoverer recoverer =
+                new DeadLetterPublishingRecoverer(kafkaTemplate, (record, ex) -> retryTopics.nextDestination(record));
+        recoverer.setHeadersFunction((record, ex) -> retryTopics.forwardHeaders(record));
+        return recoverer;
+    }
+
+    @Bean
+    public DefaultErrorHandler emailErrorHandler(DeadLetterPublishingRecoverer emailRetryRecoverer) {
+        // No in-place retries; the retry tiers provide the backoff
+        return new DefaultErrorHandler(emailRetryRecoverer, new FixedBackOff(0L, 0L));
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, BookingMessage> retryListenerContainerFactory(
+            ConsumerFactory<String, BookingMessage> consumerFactory,
+            DefaultErrorHandler emailErrorHandler) {
+
+        ConcurrentKafkaListenerContainerFactory<String, BookingMessage> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory);
+
+        // One record at a time with manual acks, so a record that is not yet due can be
+        // nacked: the partition is paused until then without blocking the consumer
+        factory.setConcurrency(retryConcurrency);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.setCommonErrorHandler(emailErrorHandler);
+
+        return factory;
+    }
+
+    @Bean
+    public KafkaAdmin.NewTopics emailRetryTopicDefinitions(EmailRetryTopics retryTopics) {
+        List<NewTopic> topics = new ArrayList<>();
+        for (String name : retryTopics.retryTopicNames()) {
+            topics.add(TopicBuilder.name(name).partitions(topicPartitions).build());
+        }
+        for (String source : retryTopics.sourceTopics()) {
+            topics.add(TopicBuilder.name(retryTopics.dltFor(source)).partitions(topicPartitions).build());
+        }
+        return new KafkaAdmin.NewTopics(topics.toArray(new NewTopic[0]));
+    }
+}
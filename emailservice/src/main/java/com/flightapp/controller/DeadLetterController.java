@@ -0,0 +1,29 @@
+package com.flightapp.controller;
+
+import com.flightapp.email.DeadLetterReplayer;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+// Not under /api, so the gateway does not expose it; call the service directly
+@RestController
+@RequestMapping("/internal/email/dlt")
+public class DeadLetterController {
+
+    private final DeadLetterReplayer replayer;
+
+    public DeadLetterController(DeadLetterReplayer replayer) { this.replayer = replayer; }
+
+    @PostMapping("/replay")
+    public ResponseEntity<Map<String, Object>> replay(@RequestParam("topic") String topic,
+                                                      @RequestParam(value = "batchSize", defaultValue = "100") int batchSize,
+                                                      @RequestParam(value = "max", defaultValue = "1000") int max) {
+        if (batchSize <= 0 || max <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        DeadLetterReplayer.Result result = replayer.replay(topic, batchSize, max);
+        return ResponseEntity.ok(Map.of("topic", topic, "replayed", result.replayed(), "skipped", result.skipped()));
+    }
+}
@@ -0,0 +1,118 @@
+package com.flightapp.email;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Service;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.flightapp.dto.BookingMessage;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves records from a dead-letter topic back onto its source topic, a batch
+ * at a time. Offsets are committed under a dedicated group only after each
+ * batch has been republished, so an interrupted replay resumes where it
+ * stopped and never drops a record.
+ */
+@Service
+public class DeadLetterReplayer {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeadLetterReplayer.class);
+
+    private static final String REPLAY_GROUP = "email-dlt-replay";
+
+    /**
+     * Outcome of a replay: records republished, and unreadable records that
+     * were dropped from the DLT instead.
+     */
+    public record Result(int replayed, int skipped) {}
+
+    private final ConsumerFactory<String, BookingMessage> consumerFactory;
+    private final KafkaTemplate<String, BookingMessage> kafkaTemplate;
+    private final EmailRetryTopics retryTopics;
+    private final long sendTimeoutMs;
+
+    public DeadLetterReplayer(ConsumerFactory<String, BookingMessage> consumerFactory,
+                              KafkaTemplate<String, BookingMessage> kafkaTemplate,
+                              EmailRetryTopics retryTopics,
+                              @Value("${email.dlt.replay.send-timeout-ms:10000}") long sendTimeoutMs) {
+        this.consumerFactory = consumerFactory;
+        this.kafkaTemplate = kafkaTemplate;
+        this.retryTopics = retryTopics;
+        this.sendTimeoutMs = sendTimeoutMs;
+    }
+
+    /**
+     * Replays {@code sourceTopic}'s DLT in batches of {@code batchSize} until
+     * it is drained or at least {@code max} records have been handled.
+     */
+    public synchronized Result replay(String sourceTopic, int batchSize, int max) {
+        if (!retryTopics.sourceTopics().contains(sourceTopic)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown topic: " + sourceTopic);
+        }
+        String dlt = retryTopics.dltFor(sourceTopic);
+
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, batchSize);
+
+        int replayed = 0;
+        int skipped = 0;
+        try (Consumer<String, BookingMessage> consumer =
+                     consumerFactory.createConsumer(REPLAY_GROUP, REPLAY_GROUP, null, overrides)) {
+            List<TopicPartition> partitions = new ArrayList<>();
+            for (PartitionInfo p : consumer.partitionsFor(dlt)) {
+                partitions.add(new TopicPartition(dlt, p.partition()));
+            }
+            consumer.assign(partitions);
+
+            while (replayed + skipped < max) {
+                ConsumerRecords<String, BookingMessage> batch = consumer.poll(Duration.ofSeconds(1));
+                if (batch.isEmpty()) break;
+
+                List<CompletableFuture<SendResult<String, BookingMessage>>> sends = new ArrayList<>();
+                int unreadable = 0;
+                for (ConsumerRecord<String, BookingMessage> record : batch) {
+                    if (record.value() == null) {
+                        logger.warn("Dropping unreadable record {}-{}@{} from DLT",
+                                record.topic(), record.partition(), record.offset());
+                        unreadable++;
+                        continue;
+                    }
+                    sends.add(kafkaTemplate.send(sourceTopic, record.key(), record.value()));
+                }
+                CompletableFuture.allOf(sends.toArray(new CompletableFuture[0]))
+                        .get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+                consumer.commitSync();
+                replayed += sends.size();
+                skipped += unreadable;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Replay interrupted");
+        } catch (Exception e) {
+            logger.error("Replaying {} stopped after {} records", dlt, replayed, e);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Replay of " + dlt + " failed after " + replayed + " records");
+        }
+
+        logger.info("Replayed {} records from {} to {}, skipped {} unreadable", replayed, dlt, sourceTopic, skipped);
+        return new Result(replayed, skipped);
+    }
+}
@@ -1,26 +1,56 @@
 package com.flightapp.email;
 
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.stereotype.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.flightapp.dto.BookingMessage;
 
+import java.util.List;
+import java.util.Map;
+
 @Component
 public class EmailListener {
 
     private static final Logger logger = LoggerFactory.getLogger(EmailListener.class);
 
     private final EmailService emailService;
+    private final DeadLetterPublishingRecoverer retryRecoverer;
 
-    public EmailListener(EmailService emailService) {
+    public EmailListener(EmailService emailService, DeadLetterPublishingRecoverer emailRetryRecoverer) {
         this.emailService = emailService;
+        this.retryRecoverer = emailRetryRecoverer;
     }
 
     @KafkaListener(topics = "booking.created", groupId = "email-group")
-    public void consumeBookingCreated(BookingMessage msg) {
-        logger.info("EmailListener received booking message: {}", msg);
-        emailService.sendBookingEmail(msg);
+    public void consumeBookingCreated(List<ConsumerRecord<String, BookingMessage>> batch) {
+        logger.info("EmailListener received {} booking messages", batch.size());
+        send(EmailTemplates.BOOKING_CONFIRMED, batch);
+    }
+
+    @KafkaListener(topics = "booking.cancelled", groupId = "email-group")
+    public void consumeBookingCancelled(List<ConsumerRecord<String, BookingMessage>> batch) {
+        logger.info("EmailListener received {} cancellation messages", batch.size());
+        send(EmailTemplates.BOOKING_CANCELLED, batch);
+    }
+
+    private void send(String template, List<ConsumerRecord<String, BookingMessage>> batch) {
+        Map<Integer, Exception> failed =
+                emailService.sendBookingEmails(template, batch.stream().map(ConsumerRecord::value).toList());
+
+        // Only the failed records move to the retry tier; the batch is committed once this returns,
+        // so emails that did go out are never sent again
+        failed.forEach((index, cause) -> {
+            try {
+                retryRecoverer.accept(batch.get(index), cause);
+            } catch (RuntimeException e) {
+                // Kafka refused the forward: commit up to this record and redeliver from it
+                throw new BatchListenerFailedException("Failed to forward booking email to the retry tier", e, index);
+            }
+        });
     }
-}
\ No newline at end of file
+}
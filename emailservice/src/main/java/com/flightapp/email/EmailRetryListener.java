@@ -0,0 +1,82 @@
+package com.flightapp.email;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.flightapp.dto.BookingMessage;
+
+import jakarta.annotation.PreDestroy;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consumes the retry tier topics. A record that is not yet due pauses only
+ * its own partition until it is, so a long tier never holds up a short one.
+ * Once due it is sent again; if that fails too, the error handler forwards
+ * it to the next tier or the DLT.
+ */
+@Component
+public class EmailRetryListener {
+
+    static final String LISTENER_ID = "email-retry";
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailRetryListener.class);
+
+    private final EmailService emailService;
+    private final EmailRetryTopics retryTopics;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final ScheduledExecutorService resumer =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("email-retry-resume-"));
+
+    public EmailRetryListener(EmailService emailService, EmailRetryTopics retryTopics,
+                              KafkaListenerEndpointRegistry listenerRegistry) {
+        this.emailService = emailService;
+        this.retryTopics = retryTopics;
+        this.listenerRegistry = listenerRegistry;
+    }
+
+    @KafkaListener(id = LISTENER_ID, topics = "#{@emailRetryTopics.retryTopicNames()}", groupId = "email-group",
+                   containerFactory = "retryListenerContainerFactory")
+    public void retry(ConsumerRecord<String, BookingMessage> record, Acknowledgment ack) {
+        long wait = retryTopics.dueAt(record) - System.currentTimeMillis();
+        if (wait > 0) {
+            // Seek back so the record is redelivered when the partition resumes
+            boolean paused = holdUntilDue(new TopicPartition(record.topic(), record.partition()), wait);
+            ack.nack(paused ? Duration.ZERO : Duration.ofMillis(wait));
+            return;
+        }
+        if (record.value() == null) {
+            logger.warn("Skipping unreadable message on {}", record.topic());
+            ack.acknowledge();
+            return;
+        }
+
+        logger.info("Retrying email for booking {} from {}", record.value().getId(), record.topic());
+        emailService.sendBookingEmail(retryTopics.templateFor(record.topic()), record.value());
+        ack.acknowledge();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        resumer.shutdownNow();
+    }
+
+    private boolean holdUntilDue(TopicPartition partition, long waitMs) {
+        MessageListenerContainer container = listenerRegistry.getListenerContainer(LISTENER_ID);
+        if (container == null) return false;
+        container.pausePartition(partition);
+        resumer.schedule(() -> container.resumePartition(partition), waitMs, TimeUnit.MILLISECONDS);
+        return true;
+    }
+}
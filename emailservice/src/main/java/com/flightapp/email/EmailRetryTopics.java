@@ -0,0 +1,129 @@
+package com.flightapp.email;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Naming and routing for the email retry tiers. A record that fails on
+ * {@code booking.created} moves to {@code booking.created-retry-0}, then
+ * {@code -retry-1} and so on, each tier waiting {@code multiplier} times
+ * longer than the one before, and finally to {@code booking.created-dlt}.
+ * The time a retry becomes due is carried in a record header so tier
+ * consumers know how long to hold it.
+ */
+@Component
+public class EmailRetryTopics {
+
+    public static final String DUE_HEADER = "email-retry-due";
+
+    private static final String RETRY_SUFFIX = "-retry-";
+    private static final String DLT_SUFFIX = "-dlt";
+
+    // Source topics and the template their emails are rendered with
+    private static final Map<String, String> SOURCES = Map.of(
+            "booking.created", EmailTemplates.BOOKING_CONFIRMED,
+            "booking.cancelled", EmailTemplates.BOOKING_CANCELLED);
+
+    private final int tiers;
+    private final long initialDelayMs;
+    private final double multiplier;
+    private final MeterRegistry registry;
+
+    public EmailRetryTopics(MeterRegistry registry,
+                            @Value("${email.retry.tiers:3}") int tiers,
+                            @Value("${email.retry.initial-delay-ms:1000}") long initialDelayMs,
+                            @Value("${email.retry.multiplier:5}") double multiplier) {
+        this.registry = registry;
+        this.tiers = tiers;
+        this.initialDelayMs = initialDelayMs;
+        this.multiplier = multiplier;
+    }
+
+    /** All retry tier topics, for the tier listener's subscription. */
+    public String[] retryTopicNames() {
+        List<String> names = new ArrayList<>();
+        for (String source : SOURCES.keySet()) {
+            for (int tier = 0; tier < tiers; tier++) {
+                names.add(source + RETRY_SUFFIX + tier);
+            }
+        }
+        return names.toArray(new String[0]);
+    }
+
+    public String dltFor(String sourceTopic) {
+        return sourceTopic + DLT_SUFFIX;
+    }
+
+    public Set<String> sourceTopics() {
+        return SOURCES.keySet();
+    }
+
+    public String templateFor(String topic) {
+        return SOURCES.get(sourceOf(topic));
+    }
+
+    /** The tier after the one {@code record} was read from, or the DLT after the last tier. */
+    public TopicPartition nextDestination(ConsumerRecord<?, ?> record) {
+        String source = sourceOf(record.topic());
+        int next = tierOf(record.topic()) + 1;
+        String topic = next < tiers ? source + RETRY_SUFFIX + next : dltFor(source);
+
+        Counter.builder("email.retry.forwarded")
+                .tag("source", source)
+                .tag("tier", next < tiers ? String.valueOf(next) : "dlt")
+                .register(registry)
+                .increment();
+
+        // Partition -1 lets the producer pick one from the key, keeping a booking's records together
+        return new TopicPartition(topic, -1);
+    }
+
+    /** Headers for a record about to be forwarded out of {@code record}'s topic. */
+    public Headers forwardHeaders(ConsumerRecord<?, ?> record) {
+        int next = tierOf(record.topic()) + 1;
+        RecordHeaders headers = new RecordHeaders();
+        if (next < tiers) {
+            long due = System.currentTimeMillis() + delayMs(next);
+            headers.add(DUE_HEADER, ByteBuffer.allocate(Long.BYTES).putLong(due).array());
+        }
+        return headers;
+    }
+
+    /** When a record read from a tier topic may be retried. */
+    public long dueAt(ConsumerRecord<?, ?> record) {
+        Header header = record.headers().lastHeader(DUE_HEADER);
+        if (header != null && header.value().length == Long.BYTES) {
+            return ByteBuffer.wrap(header.value()).getLong();
+        }
+        return record.timestamp() + delayMs(Math.max(0, tierOf(record.topic())));
+    }
+
+    long delayMs(int tier) {
+        return (long) (initialDelayMs * Math.pow(multiplier, tier));
+    }
+
+    // -1 for a source topic
+    int tierOf(String topic) {
+        int i = topic.lastIndexOf(RETRY_SUFFIX);
+        return i < 0 ? -1 : Integer.parseInt(topic.substring(i + RETRY_SUFFIX.length()));
+    }
+
+    String sourceOf(String topic) {
+        int i = topic.lastIndexOf(RETRY_SUFFIX);
+        if (i >= 0) return topic.substring(0, i);
+        return topic.endsWith(DLT_SUFFIX) ? topic.substring(0, topic.length() - DLT_SUFFIX.length()) : topic;
+    }
+}
@@ -1,28 +1,146 @@
 package com.flightapp.email;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.SimpleMailMessage;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 import com.flightapp.dto.BookingMessage;
 
+import jakarta.annotation.PreDestroy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 @Service
 public class EmailService {
 
+    private static final Logger logger = LoggerFactory.getLogger(EmailService.class);
+
     private final JavaMailSender mailSender;
+    private final EmailTemplates templates;
+    private final int maxConnections;
+    private final ExecutorService senders;
 
-    public EmailService(JavaMailSender mailSender) {
+    public EmailService(JavaMailSender mailSender,
+                        EmailTemplates templates,
+                        @Value("${email.smtp.max-connections:4}") int maxConnections) {
         this.mailSender = mailSender;
+        this.templates = templates;
+        this.maxConnections = Math.max(1, maxConnections);
+        // Shared by all listener threads, so this is the cap on concurrent SMTP connections
+        this.senders = Executors.newFixedThreadPool(this.maxConnections, new CustomizableThreadFactory("email-smtp-"));
+    }
+
+    public void sendBookingEmail(String template, BookingMessage msg) {
+        mailSender.send(bookingEmail(template, msg));
+    }
+
+    /**
+     * Sends the {@link EmailTemplates} email named {@code template} for a
+     * batch of bookings. The batch is split
+     * into consecutive chunks sent in parallel, and each chunk goes out over
+     * a single SMTP connection instead of one connection per email.
+     * Unreadable (null) messages are skipped.
+     *
+     * @return the messages that could not be sent, by batch position in
+     *         ascending order, with the reason; empty when everything was sent
+     */
+    public Map<Integer, Exception> sendBookingEmails(String template, List<BookingMessage> batch) {
+        Map<Integer, Exception> failures = new TreeMap<>();
+        if (batch.isEmpty()) return failures;
+
+        int chunkSize = (batch.size() + maxConnections - 1) / maxConnections;
+        List<Integer> starts = new ArrayList<>();
+        List<Future<Map<Integer, Exception>>> chunks = new ArrayList<>();
+        for (int from = 0; from < batch.size(); from += chunkSize) {
+            int start = from;
+            int end = Math.min(batch.size(), from + chunkSize);
+            starts.add(start);
+            chunks.add(senders.submit(() -> sendChunk(template, batch, start, end)));
+        }
+
+        for (int i = 0; i < chunks.size(); i++) {
+            int start = starts.get(i);
+            int end = Math.min(batch.size(), start + chunkSize);
+            try {
+                failures.putAll(chunks.get(i).get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failChunk(failures, batch, start, end, e);
+            } catch (ExecutionException e) {
+                logger.error("Sending booking emails failed", e.getCause());
+                failChunk(failures, batch, start, end, e.getCause() instanceof Exception cause ? cause : e);
+            }
+        }
+        return failures;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdown();
+    }
+
+    // Returns the emails that could not be sent, by batch position
+    private Map<Integer, Exception> sendChunk(String template, List<BookingMessage> batch, int start, int end) {
+        Map<Integer, Exception> failures = new TreeMap<>();
+        List<SimpleMailMessage> mails = new ArrayList<>(end - start);
+        List<Integer> positions = new ArrayList<>(end - start);
+        for (int i = start; i < end; i++) {
+            BookingMessage msg = batch.get(i);
+            if (msg == null) {
+                logger.warn("Skipping unreadable booking message at batch position {}", i);
+                continue;
+            }
+            mails.add(bookingEmail(template, msg));
+            positions.add(i);
+        }
+        if (mails.isEmpty()) return failures;
+
+        try {
+            mailSender.send(mails.toArray(new SimpleMailMessage[0]));
+        } catch (MailSendException e) {
+            // The sender carries on past a rejected email; an empty map means none got through
+            Map<Object, Exception> failed = e.getFailedMessages();
+            for (int k = 0; k < mails.size(); k++) {
+                if (failed.isEmpty() || failed.containsKey(mails.get(k))) {
+                    logger.error("Sending booking email to {} failed", batch.get(positions.get(k)).getUserEmail(), e);
+                    Exception cause = failed.get(mails.get(k));
+                    failures.put(positions.get(k), cause != null ? cause : e);
+                }
+            }
+        } catch (MailException e) {
+            logger.error("Sending booking emails failed", e);
+            positions.forEach(position -> failures.put(position, e));
+        }
+        return failures;
+    }
+
+    private static void failChunk(Map<Integer, Exception> failures, List<BookingMessage> batch,
+                                  int start, int end, Exception e) {
+        for (int i = start; i < end; i++) {
+            if (batch.get(i) != null) {
+                failures.put(i, e);
+            }
+        }
     }
 
-    public void sendBookingEmail(BookingMessage msg) {
+    private SimpleMailMessage bookingEmail(String template, BookingMessage msg) {
+        EmailTemplates.Rendered rendered = templates.render(template, msg);
         SimpleMailMessage mail = new SimpleMailMessage();
         mail.setTo(msg.getUserEmail());
-        mail.setSubject("Booking Confirmed: " + msg.getId());
-        mail.setText(
-            "Booking ID: " + msg.getId() +
-            "\nFlight: " + msg.getFlightId() +
-            "\nSeats: " + msg.getSeats()
-        );
-        mailSender.send(mail);
+        mail.setSubject(rendered.subject());
+        mail.setText(rendered.body());
+        return mail;
     }
 }
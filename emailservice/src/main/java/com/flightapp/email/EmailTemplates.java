@@ -0,0 +1,62 @@
+package com.flightapp.email;
+
+import com.samskivert.mustache.Mustache;
+import com.samskivert.mustache.Template;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Mustache templates for outgoing emails, compiled once at startup from
+ * {@code templates/email/<name>-subject.mustache} and
+ * {@code <name>-body.mustache}. Rendering only walks the compiled template,
+ * so there is no parsing per message. A missing or malformed template fails
+ * startup rather than the first send.
+ */
+@Component
+public class EmailTemplates {
+
+    public static final String BOOKING_CONFIRMED = "booking-confirmed";
+    public static final String BOOKING_CANCELLED = "booking-cancelled";
+
+    public record Rendered(String subject, String body) {}
+
+    private record Compiled(Template subject, Template body) {}
+
+    private final Map<String, Compiled> templates = new HashMap<>();
+
+    public EmailTemplates() {
+        // Plain-text mail, so no HTML escaping; missing fields render as empty
+        Mustache.Compiler compiler = Mustache.compiler().escapeHTML(false).defaultValue("");
+        for (String name : new String[] { BOOKING_CONFIRMED, BOOKING_CANCELLED }) {
+            templates.put(name, new Compiled(
+                    compile(compiler, name + "-subject"),
+                    compile(compiler, name + "-body")));
+        }
+    }
+
+    public Rendered render(String name, Object context) {
+        Compiled t = templates.get(name);
+        if (t == null) {
+            throw new IllegalArgumentException("Unknown email template: " + name);
+        }
+        return new Rendered(t.subject().execute(context).trim(), t.body().execute(context));
+    }
+
+    private static Template compile(Mustache.Compiler compiler, String file) {
+        ClassPathResource resource = new ClassPathResource("templates/email/" + file + ".mustache");
+        try (Reader reader = new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8)) {
+            return compiler.compile(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load email template " + file, e);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.flightapp.email;
+
+import com.flightapp.dto.BookingMessage;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+public class DeadLetterReplayerTest {
+
+    private static final String DLT = "booking.created-dlt";
+
+    @SuppressWarnings("unchecked")
+    private final ConsumerFactory<String, BookingMessage> consumerFactory = Mockito.mock(ConsumerFactory.class);
+    @SuppressWarnings("unchecked")
+    private final Consumer<String, BookingMessage> consumer = Mockito.mock(Consumer.class);
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, BookingMessage> kafkaTemplate = Mockito.mock(KafkaTemplate.class);
+    private final DeadLetterReplayer replayer = new DeadLetterReplayer(consumerFactory, kafkaTemplate,
+            new EmailRetryTopics(new SimpleMeterRegistry(), 2, 1000L, 5), 1000L);
+
+    private static ConsumerRecord<String, BookingMessage> record(long offset, BookingMessage value) {
+        return new ConsumerRecord<>(DLT, 0, offset, "b" + offset, value);
+    }
+
+    @Test
+    public void unreadableRecordsAreCountedAsSkippedNotReplayed() {
+        when(consumerFactory.createConsumer(anyString(), anyString(), isNull(), any(Properties.class))).thenReturn(consumer);
+        when(consumer.partitionsFor(DLT)).thenReturn(List.of(new PartitionInfo(DLT, 0, null, null, null)));
+        when(consumer.poll(any(Duration.class)))
+                .thenReturn(new ConsumerRecords<>(Map.of(new TopicPartition(DLT, 0), List.of(
+                        record(0, new BookingMessage("b0", "u@example.com", "f1", 1)),
+                        record(1, null),
+                        record(2, new BookingMessage("b2", "u@example.com", "f1", 1))))))
+                .thenReturn(ConsumerRecords.empty());
+        when(kafkaTemplate.send(eq("booking.created"), anyString(), any(BookingMessage.class)))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        DeadLetterReplayer.Result result = replayer.replay("booking.created", 10, 100);
+
+        assertEquals(2, result.replayed());
+        assertEquals(1, result.skipped());
+        verify(kafkaTemplate, times(2)).send(eq("booking.created"), anyString(), any(BookingMessage.class));
+        verify(consumer).commitSync();
+    }
+}
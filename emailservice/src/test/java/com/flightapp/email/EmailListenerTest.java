@@ -0,0 +1,72 @@
+package com.flightapp.email;
+
+import com.flightapp.dto.BookingMessage;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.*;
+
+public class EmailListenerTest {
+
+    private final RecordingMailSender sender = new RecordingMailSender("u0@example.com");
+    private final EmailService emailService = new EmailService(sender, new EmailTemplates(), 2);
+    private final DeadLetterPublishingRecoverer recoverer = Mockito.mock(DeadLetterPublishingRecoverer.class);
+    private final EmailListener listener = new EmailListener(emailService, recoverer);
+
+    private static List<ConsumerRecord<String, BookingMessage>> records(int n) {
+        List<BookingMessage> batch = EmailServiceTest.batch(n);
+        return IntStream.range(0, n)
+                .mapToObj(i -> new ConsumerRecord<>("booking.created", 0, i, "b" + i, batch.get(i)))
+                .toList();
+    }
+
+    @AfterEach
+    public void shutdown() {
+        emailService.shutdown();
+    }
+
+    @Test
+    public void onlyTheFailedRecordGoesToTheRetryTier() {
+        // Chunk 0 (u0, u1) has the bad address; chunk 1 (u2, u3) goes out fine
+        List<ConsumerRecord<String, BookingMessage>> batch = records(4);
+
+        assertDoesNotThrow(() -> listener.consumeBookingCreated(batch));
+
+        verify(recoverer).accept(same(batch.get(0)), any(Exception.class));
+        verifyNoMoreInteractions(recoverer);
+        assertEquals(List.of("u1@example.com", "u2@example.com", "u3@example.com"), sender.delivered());
+    }
+
+    @Test
+    public void sentChunksAreNotSentAgain() {
+        listener.consumeBookingCreated(records(4));
+
+        // One call per chunk; returning normally commits the batch, so nothing is redelivered
+        assertEquals(2, sender.calls.size());
+        assertEquals(1, sender.delivered().stream().filter("u2@example.com"::equals).count());
+        assertEquals(1, sender.delivered().stream().filter("u3@example.com"::equals).count());
+    }
+
+    @Test
+    public void forwardFailureRedeliversFromThatRecord() {
+        List<ConsumerRecord<String, BookingMessage>> batch = records(4);
+        doThrow(new KafkaException("broker down")).when(recoverer).accept(same(batch.get(0)), any(Exception.class));
+
+        BatchListenerFailedException e = assertThrows(BatchListenerFailedException.class,
+                () -> listener.consumeBookingCreated(batch));
+
+        assertEquals(0, e.getIndex());
+    }
+}
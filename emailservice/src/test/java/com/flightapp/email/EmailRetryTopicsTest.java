@@ -0,0 +1,44 @@
+package com.flightapp.email;
+
+import com.flightapp.dto.BookingMessage;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EmailRetryTopicsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final EmailRetryTopics topics = new EmailRetryTopics(registry, 2, 1000L, 5);
+
+    private static ConsumerRecord<String, BookingMessage> record(String topic) {
+        return new ConsumerRecord<>(topic, 0, 0L, "b1", new BookingMessage("b1", "u@example.com", "f1", 1));
+    }
+
+    @Test
+    public void failedRecordsWalkTheTiersThenTheDlt() {
+        assertEquals("booking.created-retry-0", topics.nextDestination(record("booking.created")).topic());
+        assertEquals("booking.created-retry-1", topics.nextDestination(record("booking.created-retry-0")).topic());
+        assertEquals("booking.created-dlt", topics.nextDestination(record("booking.created-retry-1")).topic());
+
+        assertEquals(1.0, registry.get("email.retry.forwarded").tag("tier", "dlt").counter().count());
+    }
+
+    @Test
+    public void delaysGrowExponentiallyPerTier() {
+        assertEquals(1000L, topics.delayMs(0));
+        assertEquals(5000L, topics.delayMs(1));
+
+        long before = System.currentTimeMillis();
+        ConsumerRecord<String, BookingMessage> source = record("booking.cancelled");
+        ConsumerRecord<String, BookingMessage> forwarded = record("booking.cancelled-retry-1");
+        topics.forwardHeaders(source).forEach(h -> forwarded.headers().add(h));
+
+        long due = topics.dueAt(forwarded);
+        assertTrue(due >= before + 1000L && due <= System.currentTimeMillis() + 1000L);
+        assertEquals(EmailTemplates.BOOKING_CANCELLED, topics.templateFor("booking.cancelled-retry-1"));
+    }
+}
@@ -0,0 +1,85 @@
+package com.flightapp.email;
+
+import com.flightapp.dto.BookingMessage;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+public class EmailServiceTest {
+
+    private static final EmailTemplates TEMPLATES = new EmailTemplates();
+
+    static List<BookingMessage> batch(int n) {
+        return java.util.stream.IntStream.range(0, n)
+                .mapToObj(i -> new BookingMessage("b" + i, "u" + i + "@example.com", "f1", 1))
+                .toList();
+    }
+
+    @Test
+    public void sendsWholeBatchInOneCallPerConnection() {
+        RecordingMailSender sender = new RecordingMailSender();
+        EmailService svc = new EmailService(sender, TEMPLATES, 2);
+
+        assertTrue(svc.sendBookingEmails(EmailTemplates.BOOKING_CONFIRMED, batch(6)).isEmpty());
+
+        // two chunks of three, each over its own connection
+        assertEquals(2, sender.calls.size());
+        sender.calls.forEach(call -> assertEquals(3, call.size()));
+        svc.shutdown();
+    }
+
+    @Test
+    public void reportsOnlyTheFailedMessages() {
+        RecordingMailSender sender = new RecordingMailSender("u1@example.com", "u3@example.com");
+        EmailService svc = new EmailService(sender, TEMPLATES, 1);
+
+        assertEquals(Set.of(1, 3), svc.sendBookingEmails(EmailTemplates.BOOKING_CONFIRMED, batch(5)).keySet());
+        assertEquals(List.of("u0@example.com", "u2@example.com", "u4@example.com"), sender.delivered());
+        svc.shutdown();
+    }
+
+    @Test
+    public void failedChunkDoesNotFailTheOthers() {
+        RecordingMailSender sender = new RecordingMailSender("u0@example.com");
+        EmailService svc = new EmailService(sender, TEMPLATES, 2);
+
+        assertEquals(Set.of(0), svc.sendBookingEmails(EmailTemplates.BOOKING_CONFIRMED, batch(4)).keySet());
+        assertEquals(3, sender.delivered().size());
+        svc.shutdown();
+    }
+
+    @Test
+    public void skipsUnreadableMessages() {
+        JavaMailSender sender = Mockito.mock(JavaMailSender.class);
+        EmailService svc = new EmailService(sender, TEMPLATES, 1);
+
+        List<BookingMessage> batch = Arrays.asList(null, new BookingMessage("b1", "u@example.com", "f1", 1));
+        assertTrue(svc.sendBookingEmails(EmailTemplates.BOOKING_CONFIRMED, batch).isEmpty());
+        svc.shutdown();
+    }
+
+    @Test
+    public void rendersCancellationTemplate() {
+        JavaMailSender sender = Mockito.mock(JavaMailSender.class);
+        EmailService svc = new EmailService(sender, TEMPLATES, 1);
+
+        svc.sendBookingEmail(EmailTemplates.BOOKING_CANCELLED, new BookingMessage("b9", "u@example.com", "f7", 2));
+
+        ArgumentCaptor<SimpleMailMessage> mail = ArgumentCaptor.forClass(SimpleMailMessage.class);
+        verify(sender).send(mail.capture());
+        assertEquals("Booking Cancelled: b9", mail.getValue().getSubject());
+        assertTrue(mail.getValue().getText().contains("Flight: f7"));
+        svc.shutdown();
+    }
+}
@@ -0,0 +1,53 @@
+package com.flightapp.email;
+
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Records each batch send; a hand-written fake because Mockito expands the
+ * varargs of send(SimpleMailMessage...) when matching and answering. Like
+ * JavaMailSenderImpl it carries on past a rejected recipient and reports
+ * every rejected email at the end.
+ */
+class RecordingMailSender extends JavaMailSenderImpl {
+
+    final List<List<SimpleMailMessage>> calls = Collections.synchronizedList(new ArrayList<>());
+    private final List<String> delivered = Collections.synchronizedList(new ArrayList<>());
+    private final Set<String> rejectedRecipients;
+
+    RecordingMailSender(String... rejectedRecipients) {
+        this.rejectedRecipients = Set.of(rejectedRecipients);
+    }
+
+    @Override
+    public void send(SimpleMailMessage... mails) {
+        calls.add(List.of(mails));
+        Map<Object, Exception> failed = new LinkedHashMap<>();
+        for (SimpleMailMessage m : mails) {
+            if (Arrays.stream(m.getTo()).anyMatch(rejectedRecipients::contains)) {
+                failed.put(m, new RuntimeException("rejected"));
+            } else {
+                delivered.addAll(Arrays.asList(m.getTo()));
+            }
+        }
+        if (!failed.isEmpty()) {
+            throw new MailSendException(failed);
+        }
+    }
+
+    /** Recipients of every email that went out, sorted. */
+    List<String> delivered() {
+        synchronized (delivered) {
+            return delivered.stream().sorted().toList();
+        }
+    }
+}
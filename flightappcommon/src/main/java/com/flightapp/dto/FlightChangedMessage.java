@@ -0,0 +1,19 @@
+package com.flightapp.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+// Published by flightservice whenever a flight's inventory or seats change
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlightChangedMessage {
+
+    private String flightId;
+    // Normalized route codes, as used for search
+    private String fromCode;
+    private String toCode;
+    // The flight's revision after the change; lets receivers skip changes they already have
+    private long revision;
+}
@@ -0,0 +1,22 @@
+package com.flightapp.security;
+
+import java.util.List;
+
+/**
+ * Headers the gateway adds to carry the verified caller to downstream
+ * services. They are signed with {@link IdentitySigner}; services must
+ * ignore them unless the signature checks out.
+ */
+public final class IdentityHeaders {
+
+    public static final String USER = "X-Auth-User";
+    // Comma-separated, as in the token's roles claim
+    public static final String ROLES = "X-Auth-Roles";
+    // Epoch seconds; the token's own expiry
+    public static final String EXPIRES = "X-Auth-Expires";
+    public static final String SIGNATURE = "X-Auth-Signature";
+
+    public static final List<String> ALL = List.of(USER, ROLES, EXPIRES, SIGNATURE);
+
+    private IdentityHeaders() {}
+}
@@ -0,0 +1,45 @@
+package com.flightapp.security;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * HMAC-SHA256 over the identity headers, shared by the gateway that signs
+ * them and the services that check them. Thread-safe.
+ */
+public class IdentitySigner {
+
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> mac;
+
+    public IdentitySigner(String secret) {
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+        this.mac = ThreadLocal.withInitial(this::newMac);
+    }
+
+    public String sign(String user, String roles, long expiresEpochSeconds) {
+        String canonical = user + '\n' + roles + '\n' + expiresEpochSeconds;
+        byte[] sig = mac.get().doFinal(canonical.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sig);
+    }
+
+    public boolean verify(String user, String roles, long expiresEpochSeconds, String signature) {
+        if (user == null || roles == null || signature == null) return false;
+        byte[] expected = sign(user, roles, expiresEpochSeconds).getBytes(StandardCharsets.US_ASCII);
+        return MessageDigest.isEqual(expected, signature.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac m = Mac.getInstance("HmacSHA256");
+            m.init(key);
+            return m;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.flightapp.config;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The caller of a request, as vouched for by the gateway or read from its
+ * token. Roles are held as a set without any {@code ROLE_} prefix.
+ *
+ * @param expiresAt epoch seconds after which this identity is no longer valid, or 0 if it does not expire
+ */
+public record AuthenticatedUser(String name, Set<String> roles, long expiresAt) {
+
+    public static AuthenticatedUser of(String name, String roles, long expiresAt) {
+        Set<String> parsed = roles == null ? Set.of() : Arrays.stream(roles.split(","))
+                .map(String::trim)
+                .map(r -> r.startsWith("ROLE_") ? r.substring(5) : r)
+                .filter(r -> !r.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+        return new AuthenticatedUser(name, parsed, expiresAt);
+    }
+
+    public boolean hasRole(String role) {
+        return roles.contains(role);
+    }
+
+    public boolean isExpired(long nowEpochSeconds) {
+        return expiresAt > 0 && expiresAt <= nowEpochSeconds;
+    }
+}
@@ -0,0 +1,134 @@
+package com.flightapp.config;
+
+import com.flightapp.security.IdentityHeaders;
+import com.flightapp.security.IdentitySigner;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Works out who is calling. In trusted-header mode the signed identity
+ * headers added by the gateway are used; a signature is checked once and
+ * the resulting principal cached until the identity expires, so repeat
+ * calls cost a map lookup. Requests without those headers, e.g. calls that
+ * bypass the gateway, fall back to verifying the bearer token unless that
+ * is disabled.
+ */
+@Component
+public class IdentityResolver {
+
+    static final String REQUEST_ATTRIBUTE = AuthenticatedUser.class.getName();
+
+    private final IdentitySigner signer;
+    private final JwtParser jwtParser;
+    private final boolean trustedHeaders;
+    private final boolean jwtFallback;
+    private final Map<String, AuthenticatedUser> verified;
+
+    public IdentityResolver(@Value("${app.jwt.secret}") String jwtSecret,
+                            @Value("${app.identity.secret:${app.jwt.secret}}") String identitySecret,
+                            @Value("${app.identity.trusted-headers:true}") boolean trustedHeaders,
+                            @Value("${app.identity.jwt-fallback:true}") boolean jwtFallback,
+                            @Value("${app.identity.cache.max-entries:10000}") int maxEntries) {
+        this.signer = new IdentitySigner(identitySecret);
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8)))
+                .build();
+        this.trustedHeaders = trustedHeaders;
+        this.jwtFallback = jwtFallback;
+        this.verified = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, AuthenticatedUser> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @throws ResponseStatusException 401 if the caller cannot be identified
+     */
+    public AuthenticatedUser resolve(HttpServletRequest request) {
+        Object cached = request.getAttribute(REQUEST_ATTRIBUTE);
+        if (cached instanceof AuthenticatedUser user) {
+            return user;
+        }
+
+        AuthenticatedUser user = null;
+        if (trustedHeaders && request.getHeader(IdentityHeaders.SIGNATURE) != null) {
+            user = fromHeaders(request);
+        } else if (jwtFallback) {
+            user = fromBearerToken(request.getHeader("Authorization"));
+        }
+        if (user == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Missing or invalid token");
+        }
+
+        request.setAttribute(REQUEST_ATTRIBUTE, user);
+        return user;
+    }
+
+    private AuthenticatedUser fromHeaders(HttpServletRequest request) {
+        String name = request.getHeader(IdentityHeaders.USER);
+        String roles = request.getHeader(IdentityHeaders.ROLES);
+        String expires = request.getHeader(IdentityHeaders.EXPIRES);
+        String signature = request.getHeader(IdentityHeaders.SIGNATURE);
+        long now = System.currentTimeMillis() / 1000;
+
+        synchronized (verified) {
+            AuthenticatedUser user = verified.get(signature);
+            if (user != null && user.name().equals(name)) {
+                if (!user.isExpired(now)) return user;
+                verified.remove(signature);
+                return null;
+            }
+        }
+
+        long expiresAt;
+        try {
+            expiresAt = Long.parseLong(expires);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (!signer.verify(name, roles, expiresAt, signature)) {
+            return null;
+        }
+
+        AuthenticatedUser user = AuthenticatedUser.of(name, roles, expiresAt);
+        if (user.isExpired(now)) {
+            return null;
+        }
+        // Identities without an expiry are checked every time rather than cached forever
+        if (expiresAt > 0) {
+            synchronized (verified) {
+                verified.put(signature, user);
+            }
+        }
+        return user;
+    }
+
+    private AuthenticatedUser fromBearerToken(String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return null;
+        }
+        try {
+            Claims claims = jwtParser.parseClaimsJws(authHeader.substring(7)).getBody();
+            Object roles = claims.get("roles");
+            long expiresAt = claims.getExpiration() != null ? claims.getExpiration().getTime() / 1000 : 0L;
+            return AuthenticatedUser.of(claims.getSubject(), roles == null ? null : roles.toString(), expiresAt);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
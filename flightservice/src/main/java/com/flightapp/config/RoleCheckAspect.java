@@ -1,12 +1,8 @@
 package com.flightapp.config;
 
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.RequestContextHolder;
@@ -14,42 +10,26 @@ import org.springframework.web.context.request.ServletRequestAttributes;
 import org.springframework.web.server.ResponseStatusException;
 
 import jakarta.servlet.http.HttpServletRequest;
-import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
 
 @Aspect
 @Component
 public class RoleCheckAspect {
 
-    @Value("${app.jwt.secret}")
-    private String secret;
+    private final IdentityResolver identityResolver;
+
+    public RoleCheckAspect(IdentityResolver identityResolver) {
+        this.identityResolver = identityResolver;
+    }
 
     @Around("@annotation(requireRole)")
     public Object checkRole(ProceedingJoinPoint joinPoint, RequireRole requireRole) throws Throwable {
         HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.getRequestAttributes()).getRequest();
-        
-        String authHeader = request.getHeader("Authorization");
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Missing or invalid token");
-        }
 
-        String token = authHeader.substring(7);
-        try {
-            SecretKey key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-
-            String roles = (String) claims.get("roles");
-            if (roles == null || !roles.contains(requireRole.value())) {
-                throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Insufficient permissions");
-            }
-
-            return joinPoint.proceed();
-        } catch (io.jsonwebtoken.JwtException e) {
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid token");
+        AuthenticatedUser user = identityResolver.resolve(request);
+        if (!user.hasRole(requireRole.value())) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Insufficient permissions");
         }
+
+        return joinPoint.proceed();
     }
 }
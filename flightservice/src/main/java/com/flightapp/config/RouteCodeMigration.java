@@ -0,0 +1,72 @@
+package com.flightapp.config;
+
+import com.flightapp.model.Flight;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Creates the indexes declared on {@link Flight} (auto index creation is off
+ * by default), drops the route index they replaced, and backfills the upper-cased fromCode/toCode route fields on
+ * flights saved before they existed, one batch at a time.
+ */
+@Component
+public class RouteCodeMigration implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(RouteCodeMigration.class);
+    private static final String COLLECTION = "flights";
+
+    private final MongoTemplate mongo;
+    private final int batchSize;
+
+    public RouteCodeMigration(MongoTemplate mongo,
+                              @Value("${flight.migration.batch-size:500}") int batchSize) {
+        this.mongo = mongo;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void run(String... args) {
+        IndexOperations indexOps = mongo.indexOps(Flight.class);
+        new MongoPersistentEntityIndexResolver(mongo.getConverter().getMappingContext())
+                .resolveIndexFor(Flight.class)
+                .forEach(indexOps::ensureIndex);
+        if (indexOps.getIndexInfo().stream().anyMatch(i -> Flight.LEGACY_ROUTE_INDEX.equals(i.getName()))) {
+            indexOps.dropIndex(Flight.LEGACY_ROUTE_INDEX);
+            logger.info("Dropped route index {}, superseded by {}", Flight.LEGACY_ROUTE_INDEX, Flight.ROUTE_INDEX);
+        }
+
+        Query pending = new Query(Criteria.where("fromCode").exists(false)).limit(batchSize);
+        pending.fields().include("fromPlace", "toPlace");
+
+        int migrated = 0;
+        List<Document> batch;
+        while (!(batch = mongo.find(pending, Document.class, COLLECTION)).isEmpty()) {
+            BulkOperations ops = mongo.bulkOps(BulkOperations.BulkMode.UNORDERED, COLLECTION);
+            for (Document doc : batch) {
+                Update update = new Update()
+                        .set("fromCode", Flight.normalizePlace(doc.getString("fromPlace")))
+                        .set("toCode", Flight.normalizePlace(doc.getString("toPlace")));
+                ops.updateOne(new Query(Criteria.where("_id").is(doc.get("_id"))), update);
+            }
+            ops.execute();
+            migrated += batch.size();
+        }
+
+        if (migrated > 0) {
+            logger.info("Backfilled route codes on {} flights", migrated);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.flightapp.config;
+
+import com.flightapp.model.SeatLayout;
+import com.flightapp.model.SeatMap;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converts flights saved with the old {@code bookedSeats} string array into
+ * the {@link SeatMap} bitmap, one batch at a time. Flights that already have
+ * a seat map are left alone, so this is a no-op once everything is migrated.
+ * A flight with a booked seat that does not fit its layout is not migrated,
+ * since dropping the seat would let it be booked again. It is flagged
+ * {@code seatMapInvalid} instead, which stops seats being chosen on it while
+ * the rest of the service keeps running, and logged so its bookedSeats can be
+ * fixed by hand; the next startup then migrates it and clears the flag.
+ */
+@Component
+public class SeatMapMigration implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeatMapMigration.class);
+    private static final String COLLECTION = "flights";
+
+    private final MongoTemplate mongo;
+    private final int batchSize;
+
+    public SeatMapMigration(MongoTemplate mongo,
+                            @Value("${flight.migration.batch-size:500}") int batchSize) {
+        this.mongo = mongo;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void run(String... args) {
+        List<Object> unmappable = new ArrayList<>();
+        int migrated = 0;
+        List<Document> batch;
+        while (!(batch = mongo.find(pending(unmappable), Document.class, COLLECTION)).isEmpty()) {
+            BulkOperations ops = mongo.bulkOps(BulkOperations.BulkMode.UNORDERED, COLLECTION);
+            for (Document doc : batch) {
+                Update update = toSeatMapUpdate(doc);
+                if (update == null) {
+                    unmappable.add(doc.get("_id"));
+                    update = new Update().set("seatMapInvalid", true);
+                } else {
+                    migrated++;
+                }
+                ops.updateOne(new Query(Criteria.where("_id").is(doc.get("_id"))), update);
+            }
+            ops.execute();
+        }
+
+        if (migrated > 0) {
+            logger.info("Migrated {} flights to seat bitmaps", migrated);
+        }
+        if (!unmappable.isEmpty()) {
+            logger.error("Flights {} have booked seats that do not fit their seat layout; seat selection is "
+                    + "disabled on them until their bookedSeats are fixed and the service restarted", unmappable);
+        }
+    }
+
+    private Query pending(List<Object> skipped) {
+        Criteria criteria = Criteria.where("seatMap").exists(false);
+        if (!skipped.isEmpty()) {
+            criteria = criteria.and("_id").nin(skipped);
+        }
+        Query query = new Query(criteria).limit(batchSize);
+        query.fields().include("totalSeats", "seatColumns", "bookedSeats");
+        return query;
+    }
+
+    /**
+     * @return the update that adds the seat map, or null if a booked seat
+     *         cannot be placed in it
+     */
+    Update toSeatMapUpdate(Document doc) {
+        String columns = doc.getString("seatColumns");
+        Number totalSeats = doc.get("totalSeats", Number.class);
+        SeatLayout layout = new SeatLayout(columns, totalSeats == null ? 0 : totalSeats.intValue());
+        SeatMap seatMap = SeatMap.forCapacity(layout.getCapacity());
+
+        List<?> legacy = doc.getList("bookedSeats", Object.class);
+        if (legacy != null) {
+            for (Object label : legacy) {
+                int index = layout.indexOf(String.valueOf(label).trim());
+                if (index < 0) {
+                    logger.error("Booked seat {} on flight {} does not fit its seat layout", label, doc.get("_id"));
+                    return null;
+                }
+                seatMap.add(index);
+            }
+        }
+
+        List<Long> words = new ArrayList<>(seatMap.getWords().length);
+        for (long word : seatMap.getWords()) {
+            words.add(word);
+        }
+
+        Update update = new Update()
+                .set("seatMap.words", words)
+                .unset("bookedSeats")
+                .unset("seatMapInvalid");
+        if (columns == null) {
+            update.set("seatColumns", SeatLayout.DEFAULT_COLUMNS);
+        }
+        return update;
+    }
+}
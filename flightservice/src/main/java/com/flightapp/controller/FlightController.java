@@ -3,13 +3,21 @@ package com.flightapp.controller;
 import com.flightapp.model.Flight;
 import com.flightapp.service.FlightService;
 import com.flightapp.config.RequireRole;
+import com.flightapp.dto.FlightSearchPage;
+import com.flightapp.dto.FlightSummary;
 import com.flightapp.dto.SeatNumbersRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 import java.util.Map;
 import java.time.LocalDate;
 import org.springframework.format.annotation.DateTimeFormat; 
@@ -18,10 +26,14 @@ import org.springframework.format.annotation.DateTimeFormat;
 @RequestMapping("/api")
 public class FlightController {
 
+    static final String NEXT_PAGE_TOKEN_HEADER = "X-Next-Page-Token";
+
     private final FlightService svc;
+    private final ObjectMapper objectMapper;
 
-    public FlightController(FlightService svc) {
+    public FlightController(FlightService svc, ObjectMapper objectMapper) {
         this.svc = svc;
+        this.objectMapper = objectMapper;
     }
 
     @RequireRole("ADMIN")
@@ -35,12 +47,42 @@ public class FlightController {
     }
 
     @GetMapping("/flights")
-    public List<Flight> search(
+    public ResponseEntity<List<FlightSummary>> search(
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String pageToken) {
+
+        FlightSearchPage page = svc.searchPage(from, to, date, size, pageToken);
+        ResponseEntity.BodyBuilder resp = ResponseEntity.ok();
+        if (page.getNextPageToken() != null) {
+            resp.header(NEXT_PAGE_TOKEN_HEADER, page.getNextPageToken());
+        }
+        return resp.body(page.getFlights());
+    }
+
+    // Same search, written one JSON object per line straight from the Mongo cursor
+    @GetMapping(value = "/flights", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> searchStream(
             @RequestParam String from,
             @RequestParam String to,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
 
-        return svc.search(from, to, date);
+        if (date != null && date.isBefore(LocalDate.now())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cannot search for flights on past dates");
+        }
+
+        StreamingResponseBody body = out -> {
+            try (Stream<FlightSummary> flights = svc.streamSearch(from, to, date)) {
+                Iterator<FlightSummary> it = flights.iterator();
+                while (it.hasNext()) {
+                    out.write(objectMapper.writeValueAsBytes(it.next()));
+                    out.write('\n');
+                }
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
     @GetMapping("/flights/{id}")
@@ -53,6 +95,7 @@ public class FlightController {
         return ResponseEntity.ok(svc.getBookedSeats(id));
     }
 
+    // Seat labels must fit the flight's layout (row number then column letter, e.g. "12C"); others are a 400
     @PostMapping("/flights/{id}/reserve-seats")
     public ResponseEntity<Void> reserveSeats(
             @PathVariable String id,
@@ -61,6 +104,14 @@ public class FlightController {
         return ResponseEntity.ok().build();
     }
 
+    // Validates the flight and reserves the seats in one step; returns the flight after the reservation
+    @PostMapping("/flights/{id}/validate-and-reserve")
+    public ResponseEntity<FlightSummary> validateAndReserve(
+            @PathVariable String id,
+            @RequestBody SeatNumbersRequest req) {
+        return ResponseEntity.ok(svc.validateAndReserveSeats(id, req.getSeatNumbers()));
+    }
+
     @PostMapping("/flights/{id}/release-seats")
     public ResponseEntity<Void> releaseSeats(
             @PathVariable String id,
@@ -0,0 +1,15 @@
+package com.flightapp.dto;
+
+import java.util.List;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlightSearchPage {
+    private List<FlightSummary> flights;
+    // Null on the last page
+    private String nextPageToken;
+}
@@ -0,0 +1,36 @@
+package com.flightapp.dto;
+
+import com.flightapp.model.Flight;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Search-result view of a flight: everything except the booked seats, which
+ * callers fetch per flight from /flights/{id}/booked-seats when they need them.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlightSummary {
+    private String id;
+    private String fromPlace;
+    private String toPlace;
+    private int totalSeats;
+    private int availableSeats;
+    private Instant departureTime;
+    private LocalDate flightDate;
+    private Instant arrivalTime;
+    private Double price;
+    private String seatColumns;
+
+    public static FlightSummary of(Flight f) {
+        return new FlightSummary(f.getId(), f.getFromPlace(), f.getToPlace(), f.getTotalSeats(),
+                f.getAvailableSeats(), f.getDepartureTime(), f.getFlightDate(), f.getArrivalTime(),
+                f.getPrice(), f.getSeatColumns());
+    }
+}
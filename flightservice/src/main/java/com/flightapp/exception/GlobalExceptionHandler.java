@@ -4,6 +4,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.server.ResponseStatusException;
 
 import jakarta.servlet.http.HttpServletRequest;
 import java.time.Instant;
@@ -28,6 +29,24 @@ public class GlobalExceptionHandler {
         );
     }
 
+    // Keep the status of validation errors instead of reporting them as 500s
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<Map<String, Object>> handleStatus(
+            ResponseStatusException ex,
+            HttpServletRequest req) {
+
+        HttpStatus status = HttpStatus.valueOf(ex.getStatusCode().value());
+        return ResponseEntity.status(status).body(
+            Map.of(
+                "timestamp", Instant.now(),
+                "status", status.value(),
+                "error", status.getReasonPhrase(),
+                "message", ex.getReason() != null ? ex.getReason() : status.getReasonPhrase(),
+                "path", req.getRequestURI()
+            )
+        );
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, Object>> handleOther(
             Exception ex,
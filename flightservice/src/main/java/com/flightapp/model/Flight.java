@@ -1,32 +1,79 @@
 package com.flightapp.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 import java.time.Instant;
 import java.time.LocalDate;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.List;
+import java.util.Locale;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Document("flights")
+// _id last so search pages are a seek on the index in their exact sort order
+@CompoundIndex(name = Flight.ROUTE_INDEX, def = "{'fromCode': 1, 'toCode': 1, 'flightDate': 1, 'departureTime': 1, '_id': 1}")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Flight {
+  public static final String ROUTE_INDEX = "route_date_departure_id";
+  // Superseded by ROUTE_INDEX; dropped at startup by RouteCodeMigration
+  public static final String LEGACY_ROUTE_INDEX = "route_date_departure";
+
   @Id
   private String id;
   private String fromPlace;
   private String toPlace;
+  // Upper-cased copies of fromPlace/toPlace so route lookups hit the compound index instead of a regex scan
+  @JsonIgnore
+  private String fromCode;
+  @JsonIgnore
+  private String toCode;
   private int totalSeats;
   private int availableSeats;
   private Instant departureTime;
+  @Indexed
   private LocalDate flightDate;
   private Instant arrivalTime;
   private Double price;
-  private Set<String> bookedSeats = new HashSet<>();
-}
+  // Seat letters per row, e.g. "ABCDEF"; fixes how labels like "12C" map to seat indexes
+  private String seatColumns = SeatLayout.DEFAULT_COLUMNS;
+  @JsonIgnore
+  private SeatMap seatMap = new SeatMap();
+  // Set by SeatMapMigration when legacy booked seats did not fit the layout; seats cannot be chosen until fixed
+  @JsonIgnore
+  private boolean seatMapInvalid;
+  // Bumped by every atomic seat update so readers can tell which copy of a flight is newer
+  @JsonIgnore
+  private long revision;
+  // Set on every write, so FlightSearchIndex can read just the flights changed since its last pass
+  @JsonIgnore
+  @Indexed
+  private Instant updatedAt;
 
+  public static String normalizePlace(String place) {
+    return place == null ? "" : place.trim().toUpperCase(Locale.ROOT);
+  }
+
+  @Transient
+  @JsonIgnore
+  public SeatLayout getSeatLayout() {
+    return new SeatLayout(seatColumns, totalSeats);
+  }
+
+  // Booked seats are exposed to clients as labels; the bitmap stays internal
+  @Transient
+  @JsonProperty(value = "bookedSeats", access = JsonProperty.Access.READ_ONLY)
+  public List<String> getBookedSeats() {
+    return seatMap == null ? List.of() : seatMap.labels(getSeatLayout());
+  }
+}
@@ -0,0 +1,66 @@
+package com.flightapp.model;
+
+import java.util.Locale;
+
+/**
+ * Maps seat labels such as "12C" to dense indexes and back. Rows are
+ * numbered from 1 and each row holds one seat per column letter, so with
+ * columns "ABCDEF" seat 1A is index 0, 1F is 5 and 2A is 6. Indexes at or
+ * beyond the flight's total seats are not valid seats.
+ */
+public final class SeatLayout {
+
+    public static final String DEFAULT_COLUMNS = "ABCDEF";
+
+    private final String columns;
+    private final int capacity;
+
+    public SeatLayout(String columns, int capacity) {
+        this.columns = (columns == null || columns.isBlank())
+                ? DEFAULT_COLUMNS
+                : columns.toUpperCase(Locale.ROOT);
+        this.capacity = capacity;
+    }
+
+    public static boolean isValidColumns(String columns) {
+        if (columns == null || columns.isEmpty()) return false;
+        for (int i = 0; i < columns.length(); i++) {
+            char c = columns.charAt(i);
+            if (c < 'A' || c > 'Z' || columns.indexOf(c) != i) return false;
+        }
+        return true;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the seat index for the label, or -1 when it is malformed or
+     *         outside this layout
+     */
+    public int indexOf(String label) {
+        if (label == null) return -1;
+        int len = label.length();
+        if (len < 2) return -1;
+
+        int col = columns.indexOf(Character.toUpperCase(label.charAt(len - 1)));
+        if (col < 0) return -1;
+
+        int row = 0;
+        for (int i = 0; i < len - 1; i++) {
+            char c = label.charAt(i);
+            if (c < '0' || c > '9' || row > capacity) return -1;
+            row = row * 10 + (c - '0');
+        }
+        if (row < 1) return -1;
+
+        long index = (long) (row - 1) * columns.length() + col;
+        return index < capacity ? (int) index : -1;
+    }
+
+    public String labelOf(int index) {
+        int width = columns.length();
+        return (index / width + 1) + String.valueOf(columns.charAt(index % width));
+    }
+}
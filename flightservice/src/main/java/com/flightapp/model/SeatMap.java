@@ -0,0 +1,87 @@
+package com.flightapp.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Seat occupancy as a bitset: bit i is set when the seat at index i (see
+ * {@link SeatLayout}) is booked. Stored in Mongo as an array of 64-bit words
+ * so a reservation can test and set individual words atomically with
+ * $bitsAllClear / $bit.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatMap {
+
+    private long[] words = new long[0];
+
+    public static SeatMap forCapacity(int seats) {
+        return new SeatMap(new long[(Math.max(seats, 0) + 63) >>> 6]);
+    }
+
+    public static int wordIndex(int index) {
+        return index >>> 6;
+    }
+
+    /**
+     * Groups seat indexes into one bit mask per word, keyed by word index.
+     */
+    public static Map<Integer, Long> masksOf(Collection<Integer> indexes) {
+        Map<Integer, Long> masks = new TreeMap<>();
+        for (int index : indexes) {
+            masks.merge(wordIndex(index), 1L << index, (a, b) -> a | b);
+        }
+        return masks;
+    }
+
+    public boolean contains(int index) {
+        int w = wordIndex(index);
+        return w < words.length && (words[w] & (1L << index)) != 0;
+    }
+
+    public void add(int index) {
+        int w = wordIndex(index);
+        if (w >= words.length) {
+            long[] grown = new long[w + 1];
+            System.arraycopy(words, 0, grown, 0, words.length);
+            words = grown;
+        }
+        words[w] |= 1L << index;
+    }
+
+    public void remove(int index) {
+        int w = wordIndex(index);
+        if (w < words.length) {
+            words[w] &= ~(1L << index);
+        }
+    }
+
+    public int cardinality() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    public List<String> labels(SeatLayout layout) {
+        List<String> labels = new ArrayList<>(cardinality());
+        for (int w = 0; w < words.length; w++) {
+            long word = words[w];
+            while (word != 0) {
+                int bit = Long.numberOfTrailingZeros(word);
+                labels.add(layout.labelOf((w << 6) + bit));
+                word &= word - 1;
+            }
+        }
+        return labels;
+    }
+}
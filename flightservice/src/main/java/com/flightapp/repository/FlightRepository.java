@@ -2,13 +2,35 @@ package com.flightapp.repository;
 
 import com.flightapp.model.Flight;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 
 import java.util.List;
+import java.util.stream.Stream;
+import java.time.Instant;
 import java.time.LocalDate;
 
-public interface FlightRepository extends MongoRepository<Flight, String> {
+public interface FlightRepository extends MongoRepository<Flight, String>, FlightRepositoryCustom {
 
-    List<Flight> findByFromPlaceIgnoreCaseAndToPlaceIgnoreCase(String from, String to);
+    // Route codes are stored upper-cased (see Flight.normalizePlace) so these are plain equality matches on the compound index.
+    // Search results never need the seat bitmap, so it is left out of the projection.
+    @Query(fields = "{ 'seatMap': 0 }")
+    List<Flight> findByFromCodeAndToCodeAndFlightDateGreaterThanEqualOrderByFlightDateAscDepartureTimeAscIdAsc(String fromCode, String toCode, LocalDate fromDate);
 
-    List<Flight> findByFromPlaceIgnoreCaseAndToPlaceIgnoreCaseAndFlightDate(String from, String to, LocalDate flightDate);
+    @Query(fields = "{ 'seatMap': 0 }")
+    List<Flight> findByFromCodeAndToCodeAndFlightDateOrderByDepartureTimeAscIdAsc(String fromCode, String toCode, LocalDate flightDate);
+
+    // Cursor-backed variants for streaming search; callers must close the stream
+    @Query(fields = "{ 'seatMap': 0 }")
+    Stream<Flight> streamByFromCodeAndToCodeAndFlightDateGreaterThanEqualOrderByFlightDateAscDepartureTimeAscIdAsc(String fromCode, String toCode, LocalDate fromDate);
+
+    @Query(fields = "{ 'seatMap': 0 }")
+    Stream<Flight> streamByFromCodeAndToCodeAndFlightDateOrderByDepartureTimeAscIdAsc(String fromCode, String toCode, LocalDate flightDate);
+
+    // Reloaded periodically by FlightSearchIndex, which has no use for seat maps
+    @Query(fields = "{ 'seatMap': 0 }")
+    List<Flight> findByFlightDateGreaterThanEqual(LocalDate flightDate);
+
+    // Flights written since FlightSearchIndex's last pass, past ones included so they can be dropped
+    @Query(fields = "{ 'seatMap': 0 }")
+    List<Flight> findByUpdatedAtGreaterThanEqual(Instant since);
 } 
@@ -0,0 +1,40 @@
+package com.flightapp.repository;
+
+import com.flightapp.model.Flight;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Queries and updates on the flights collection that Spring Data cannot
+ * derive.
+ * <p>
+ * The seat updates are atomic. Each is a single
+ * conditional find-and-modify that bumps the flight's revision and
+ * {@code updatedAt} and returns
+ * the updated flight, or null when the flight did not match the condition
+ * (missing, departed, seat taken, seat map quarantined or not enough seats).
+ * Seat masks are keyed by word index into {@code seatMap.words}, as built by
+ * {@link com.flightapp.model.SeatMap#masksOf}.
+ */
+public interface FlightRepositoryCustom {
+
+    Flight reserveSeatsAtomically(String flightId, Map<Integer, Long> seatMasks, int seats, Instant now, LocalDate today);
+
+    Flight releaseSeatsAtomically(String flightId, Map<Integer, Long> bookedSeatMasks, int seats);
+
+    Flight reserveCountAtomically(String flightId, int seats, Instant now);
+
+    Flight compareAndSetAvailableSeats(String flightId, int expected, int updated);
+
+    /**
+     * Up to {@code limit} flights on the route, on {@code date} or from
+     * {@code today} onwards when no date is given, ordered by flight date,
+     * departure time and id, and starting strictly after {@code after} when
+     * given. A keyset query: Mongo seeks to the position on the route index
+     * rather than skipping the flights before it. Seat maps are left out.
+     */
+    List<Flight> findSearchPage(String fromCode, String toCode, LocalDate date, LocalDate today, Flight after, int limit);
+}
@@ -0,0 +1,136 @@
+package com.flightapp.repository;
+
+import com.flightapp.model.Flight;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class FlightRepositoryImpl implements FlightRepositoryCustom {
+
+    private static final String WORDS = "seatMap.words.";
+
+    private final MongoTemplate mongo;
+
+    public FlightRepositoryImpl(MongoTemplate mongo) {
+        this.mongo = mongo;
+    }
+
+    @Override
+    public Flight reserveSeatsAtomically(String flightId, Map<Integer, Long> seatMasks, int seats, Instant now, LocalDate today) {
+        // departureTime $not $lt now also matches flights without a departure time
+        Criteria criteria = Criteria.where("_id").is(flightId)
+                .and("departureTime").not().lt(now)
+                .and("flightDate").not().lt(today)
+                .and("seatMapInvalid").ne(true)
+                .and("availableSeats").gte(seats);
+        Update update = new Update().inc("availableSeats", -seats);
+
+        seatMasks.forEach((word, mask) -> {
+            criteria.and(WORDS + word).bits().allClear(bitPositions(mask));
+            update.bitwise(WORDS + word).or(mask);
+        });
+
+        return modify(new Query(criteria), update);
+    }
+
+    @Override
+    public Flight releaseSeatsAtomically(String flightId, Map<Integer, Long> bookedSeatMasks, int seats) {
+        // Only matches while every seat is still booked, so the count stays in step with the bitmap
+        Criteria criteria = Criteria.where("_id").is(flightId);
+        Update update = new Update().inc("availableSeats", seats);
+
+        bookedSeatMasks.forEach((word, mask) -> {
+            criteria.and(WORDS + word).bits().allSet(bitPositions(mask));
+            update.bitwise(WORDS + word).and(~mask);
+        });
+
+        return modify(new Query(criteria), update);
+    }
+
+    @Override
+    public Flight reserveCountAtomically(String flightId, int seats, Instant now) {
+        Query query = new Query(Criteria.where("_id").is(flightId)
+                .and("departureTime").not().lt(now)
+                .and("availableSeats").gte(seats));
+
+        Update update = new Update().inc("availableSeats", -seats);
+
+        return modify(query, update);
+    }
+
+    @Override
+    public Flight compareAndSetAvailableSeats(String flightId, int expected, int updated) {
+        Query query = new Query(Criteria.where("_id").is(flightId)
+                .and("availableSeats").is(expected));
+
+        Update update = new Update().set("availableSeats", updated);
+
+        return modify(query, update);
+    }
+
+    @Override
+    public List<Flight> findSearchPage(String fromCode, String toCode, LocalDate date, LocalDate today, Flight after, int limit) {
+        Criteria criteria = Criteria.where("fromCode").is(fromCode).and("toCode").is(toCode);
+        if (date != null) {
+            criteria.and("flightDate").is(date);
+        } else {
+            criteria.and("flightDate").gte(today);
+        }
+        if (after != null) {
+            criteria.orOperator(date != null ? laterOnSameDay(after) : later(after));
+        }
+
+        Query query = new Query(criteria)
+                .with(Sort.by("flightDate", "departureTime", "_id"))
+                .limit(limit);
+        query.fields().exclude("seatMap");
+        return mongo.find(query, Flight.class);
+    }
+
+    // Strictly after the position, in flight date, departure time, id order
+    private static Criteria[] later(Flight after) {
+        return new Criteria[] {
+                Criteria.where("flightDate").gt(after.getFlightDate()),
+                Criteria.where("flightDate").is(after.getFlightDate()).orOperator(laterOnSameDay(after))
+        };
+    }
+
+    private static Criteria[] laterOnSameDay(Flight after) {
+        if (after.getDepartureTime() == null) {
+            // Mongo sorts a missing departure time first
+            return new Criteria[] {
+                    Criteria.where("departureTime").ne(null),
+                    Criteria.where("departureTime").is(null).and("_id").gt(after.getId())
+            };
+        }
+        return new Criteria[] {
+                Criteria.where("departureTime").gt(after.getDepartureTime()),
+                Criteria.where("departureTime").is(after.getDepartureTime()).and("_id").gt(after.getId())
+        };
+    }
+
+    private Flight modify(Query query, Update update) {
+        update.inc("revision", 1).currentDate("updatedAt");
+        return mongo.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), Flight.class);
+    }
+
+    // Numeric bitmasks in $bitsAllClear/$bitsAllSet are limited to 32 bits; positions cover the whole word
+    private static List<Integer> bitPositions(long mask) {
+        List<Integer> positions = new ArrayList<>(Long.bitCount(mask));
+        while (mask != 0) {
+            positions.add(Long.numberOfTrailingZeros(mask));
+            mask &= mask - 1;
+        }
+        return positions;
+    }
+}
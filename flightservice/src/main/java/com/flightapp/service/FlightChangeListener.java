@@ -0,0 +1,34 @@
+package com.flightapp.service;
+
+import com.flightapp.dto.FlightChangedMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps this instance's search index in step with flights written by other
+ * instances. Every instance has its own consumer group so each one sees
+ * every change, named after a stable instance id
+ * ({@code flight.search-index.instance-id}, else the host name) so a
+ * restarted instance rejoins its group rather than leaving one behind.
+ */
+@Component
+public class FlightChangeListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlightChangeListener.class);
+
+    private final FlightSearchIndex searchIndex;
+
+    public FlightChangeListener(FlightSearchIndex searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    @KafkaListener(topics = "${flight.events.changed-topic:flight.changed}",
+                   groupId = "flightservice-index-${flight.search-index.instance-id:${HOSTNAME:local}}")
+    public void flightChanged(FlightChangedMessage msg) {
+        if (msg == null || msg.getFlightId() == null) return;
+        logger.debug("Refreshing indexed flight {} at revision {}", msg.getFlightId(), msg.getRevision());
+        searchIndex.refresh(msg.getFlightId(), msg.getRevision());
+    }
+}
@@ -0,0 +1,45 @@
+package com.flightapp.service;
+
+import com.flightapp.dto.FlightChangedMessage;
+import com.flightapp.model.Flight;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tells other services, such as the gateway's response cache, and the
+ * search indexes of other flightservice instances that a flight changed.
+ * Fire and forget: a lost notification only means a cached copy lives out
+ * its (short) TTL, or an index waits for its next reconcile pass.
+ */
+@Component
+public class FlightChangePublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlightChangePublisher.class);
+
+    private final KafkaTemplate<String, FlightChangedMessage> kafkaTemplate;
+    private final String topic;
+
+    public FlightChangePublisher(KafkaTemplate<String, FlightChangedMessage> kafkaTemplate,
+                                 @Value("${flight.events.changed-topic:flight.changed}") String topic) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.topic = topic;
+    }
+
+    public void flightChanged(Flight f) {
+        FlightChangedMessage m = new FlightChangedMessage(f.getId(),
+                Flight.normalizePlace(f.getFromPlace()), Flight.normalizePlace(f.getToPlace()), f.getRevision());
+        try {
+            kafkaTemplate.send(topic, f.getId(), m).whenComplete((result, ex) -> {
+                if (ex != null) {
+                    logger.warn("Could not publish change for flight {}", f.getId(), ex);
+                }
+            });
+        } catch (Exception ex) {
+            logger.warn("Could not publish change for flight {}", f.getId(), ex);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.flightapp.service;
+
+import com.flightapp.dto.FlightSearchPage;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache of search result pages with a TTL. Entries are grouped
+ * by route so that any change to a flight on a route drops exactly that
+ * route's pages. Each route also has a generation number, bumped on
+ * invalidation, so a page computed before a change is never stored after it.
+ */
+@Component
+public class FlightSearchCache {
+
+    record Key(String fromCode, String toCode, LocalDate date, int size, String pageToken) {
+        Route route() {
+            return new Route(fromCode, toCode);
+        }
+    }
+
+    record Route(String fromCode, String toCode) {}
+
+    private record Entry(FlightSearchPage page, long expiresAt) {}
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final LinkedHashMap<Key, Entry> entries;
+    private final Map<Route, Set<Key>> keysByRoute = new HashMap<>();
+    private final Map<Route, Long> generations = new HashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter sizeEvictions;
+    private final Counter expiredEvictions;
+    private final Counter invalidations;
+
+    public FlightSearchCache(MeterRegistry registry,
+                             @Value("${flight.search-cache.max-entries:10000}") int maxEntries,
+                             @Value("${flight.search-cache.ttl-ms:30000}") long ttlMillis) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+
+        this.hits = Counter.builder("flight.search.cache.requests").tag("result", "hit").register(registry);
+        this.misses = Counter.builder("flight.search.cache.requests").tag("result", "miss").register(registry);
+        this.sizeEvictions = Counter.builder("flight.search.cache.evictions").tag("cause", "size").register(registry);
+        this.expiredEvictions = Counter.builder("flight.search.cache.evictions").tag("cause", "expired").register(registry);
+        this.invalidations = Counter.builder("flight.search.cache.invalidations").register(registry);
+        Gauge.builder("flight.search.cache.size", this, FlightSearchCache::size).register(registry);
+    }
+
+    public FlightSearchPage get(String fromCode, String toCode, LocalDate date, int size, String pageToken,
+                                Supplier<FlightSearchPage> loader) {
+        Key key = new Key(fromCode, toCode, date, size, pageToken);
+        long generation;
+
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAt() > System.currentTimeMillis()) {
+                hits.increment();
+                return entry.page();
+            }
+            if (entry != null) {
+                unlink(key);
+                expiredEvictions.increment();
+            }
+            generation = generations.getOrDefault(key.route(), 0L);
+        }
+
+        misses.increment();
+        FlightSearchPage page = loader.get();
+
+        synchronized (this) {
+            if (generations.getOrDefault(key.route(), 0L) == generation) {
+                entries.put(key, new Entry(page, System.currentTimeMillis() + ttlMillis));
+                keysByRoute.computeIfAbsent(key.route(), r -> new HashSet<>()).add(key);
+                evictOverflow();
+            }
+        }
+        return page;
+    }
+
+    public synchronized void invalidateRoute(String fromCode, String toCode) {
+        Route route = new Route(fromCode, toCode);
+        generations.merge(route, 1L, Long::sum);
+
+        Set<Key> keys = keysByRoute.remove(route);
+        if (keys != null) {
+            entries.keySet().removeAll(keys);
+            invalidations.increment(keys.size());
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void evictOverflow() {
+        Iterator<Key> eldest = entries.keySet().iterator();
+        while (entries.size() > maxEntries && eldest.hasNext()) {
+            Key key = eldest.next();
+            eldest.remove();
+            removeFromRoute(key);
+            sizeEvictions.increment();
+        }
+    }
+
+    private void unlink(Key key) {
+        entries.remove(key);
+        removeFromRoute(key);
+    }
+
+    private void removeFromRoute(Key key) {
+        Set<Key> keys = keysByRoute.get(key.route());
+        if (keys != null && keys.remove(key) && keys.isEmpty()) {
+            keysByRoute.remove(key.route());
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package com.flightapp.service;
+
+import com.flightapp.model.Flight;
+import com.flightapp.repository.FlightRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
+
+/**
+ * Read-optimized copy of upcoming flights, keyed by normalized route and
+ * date, so flight search never has to go to Mongo. Loaded once the
+ * application is ready, updated with every flight this instance writes and
+ * with changes other instances announce on the flight change topic.
+ * Periodic reconcile passes read only the flights written since the last
+ * pass, which catches announcements that were lost; an occasional full sweep
+ * also catches flights removed behind the service's back.
+ * Search results never include booked seats, so seat maps are not kept.
+ */
+@Component
+public class FlightSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlightSearchIndex.class);
+
+    record Route(String from, String to) {
+        static Route of(String from, String to) {
+            return new Route(Flight.normalizePlace(from), Flight.normalizePlace(to));
+        }
+    }
+
+    // write is the value of writes when the entry was stored
+    private record Entry(Flight flight, long write) {}
+
+    private final FlightRepository repo;
+    private final FlightSearchCache searchCache;
+    private final long fullSweepIntervalMs;
+    // Re-read this much before the watermark, as updatedAt comes from whichever clock did the write
+    private final long watermarkOverlapMs;
+    private final Map<String, Entry> byId = new ConcurrentHashMap<>();
+    private final Map<Route, NavigableMap<LocalDate, Map<String, Flight>>> byRoute = new ConcurrentHashMap<>();
+    // Writers hold the monitor; readers go straight to the concurrent maps
+    private long writes;
+    private volatile boolean loaded;
+    // Guarded by reconcileLock; watermark is when the last pass began, null before the first
+    private final Object reconcileLock = new Object();
+    private Instant watermark;
+    private Instant lastFullSweep;
+
+    public FlightSearchIndex(FlightRepository repo,
+                             FlightSearchCache searchCache,
+                             @Value("${flight.search-index.full-sweep-interval-ms:3600000}") long fullSweepIntervalMs,
+                             @Value("${flight.search-index.watermark-overlap-ms:5000}") long watermarkOverlapMs) {
+        this.repo = repo;
+        this.searchCache = searchCache;
+        this.fullSweepIntervalMs = fullSweepIntervalMs;
+        this.watermarkOverlapMs = watermarkOverlapMs;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        int drift = reconcile();
+        loaded = true;
+        logger.info("Flight search index loaded with {} flights ({} changed)", byId.size(), drift);
+    }
+
+    /**
+     * Brings the index up to date with Mongo and drops flights now in the
+     * past. The first pass, and one every {@code full-sweep-interval-ms},
+     * re-reads every upcoming flight and also drops flights that are gone;
+     * the others read only flights written since the previous pass began.
+     * Entries written after the read began are newer than what was read and
+     * are left alone. Search pages for repaired routes are invalidated.
+     *
+     * @return the number of entries that had to be repaired
+     */
+    @Scheduled(fixedDelayString = "${flight.search-index.verify-interval-ms:60000}",
+               initialDelayString = "${flight.search-index.verify-interval-ms:60000}")
+    public int reconcile() {
+        synchronized (reconcileLock) {
+            Instant started = Instant.now();
+            LocalDate today = LocalDate.now();
+            long readStart;
+            synchronized (this) {
+                readStart = writes;
+            }
+
+            boolean full = watermark == null || !started.isBefore(lastFullSweep.plusMillis(fullSweepIntervalMs));
+            int drift = full
+                    ? sweep(today, readStart)
+                    : catchUp(watermark.minusMillis(watermarkOverlapMs), today, readStart);
+            watermark = started;
+            if (full) {
+                lastFullSweep = started;
+            }
+
+            // Changes found by a catch-up are usually just announcements that have not arrived yet
+            if (loaded && full && drift > 0) {
+                logger.warn("Flight search index was out of sync with Mongo on {} flights", drift);
+            }
+            return drift;
+        }
+    }
+
+    private int sweep(LocalDate today, long readStart) {
+        Set<String> live = new HashSet<>();
+        int drift = 0;
+        for (Flight f : repo.findByFlightDateGreaterThanEqual(today)) {
+            live.add(f.getId());
+            if (repair(f, readStart)) {
+                drift++;
+            }
+        }
+        for (String id : new ArrayList<>(byId.keySet())) {
+            if (evict(id, live::contains, readStart, today)) {
+                drift++;
+            }
+        }
+        return drift;
+    }
+
+    private int catchUp(Instant since, LocalDate today, long readStart) {
+        int drift = 0;
+        for (Flight f : repo.findByUpdatedAtGreaterThanEqual(since)) {
+            if (isUpcoming(f, today) ? repair(f, readStart) : evict(f.getId(), id -> false, readStart, today)) {
+                drift++;
+            }
+        }
+        // Past dates need no read to be dropped
+        for (String id : new ArrayList<>(byId.keySet())) {
+            if (evict(id, known -> true, readStart, today)) {
+                drift++;
+            }
+        }
+        return drift;
+    }
+
+    /**
+     * Applies a change announced on the flight change topic, by this or any
+     * other instance. Nothing is read when the index already has that
+     * revision, which is always so for this instance's own writes.
+     */
+    public void refresh(String flightId, long revision) {
+        Entry current = byId.get(flightId);
+        if (current != null && current.flight().getRevision() >= revision) {
+            return;
+        }
+        long readStart;
+        synchronized (this) {
+            readStart = writes;
+        }
+        LocalDate today = LocalDate.now();
+        Optional<Flight> fresh = repo.findById(flightId).filter(f -> isUpcoming(f, today));
+        if (fresh.isPresent()) {
+            repair(fresh.get(), readStart);
+        } else {
+            evict(flightId, id -> false, readStart, today);
+        }
+    }
+
+    /**
+     * Adds or replaces a flight. A copy older than the one already indexed
+     * (lower revision) is ignored, so concurrent seat updates can be applied
+     * in any order.
+     */
+    public synchronized void put(Flight flight) {
+        if (flight == null || flight.getId() == null || flight.getFlightDate() == null) return;
+
+        Entry old = byId.get(flight.getId());
+        if (old != null && old.flight().getRevision() > flight.getRevision()) {
+            return;
+        }
+        if (old != null) {
+            unlink(old.flight());
+        }
+        Flight copy = withoutSeats(flight);
+        byRoute.computeIfAbsent(Route.of(copy.getFromPlace(), copy.getToPlace()), r -> new ConcurrentSkipListMap<>())
+                .computeIfAbsent(copy.getFlightDate(), d -> new ConcurrentHashMap<>())
+                .put(copy.getId(), copy);
+        byId.put(copy.getId(), new Entry(copy, ++writes));
+    }
+
+    public synchronized void remove(String flightId) {
+        Entry old = byId.remove(flightId);
+        if (old != null) {
+            unlink(old.flight());
+        }
+    }
+
+    public Flight get(String flightId) {
+        Entry entry = byId.get(flightId);
+        return entry == null ? null : entry.flight();
+    }
+
+    /**
+     * Flights on the route departing on {@code date}, or on any day from
+     * {@code today} onwards when no date is given, in {@link SearchCursor#ORDER}.
+     */
+    public List<Flight> search(String from, String to, LocalDate date, LocalDate today) {
+        NavigableMap<LocalDate, Map<String, Flight>> dates = byRoute.get(Route.of(from, to));
+        if (dates == null) {
+            return List.of();
+        }
+
+        List<Flight> results = new ArrayList<>();
+        if (date != null) {
+            Map<String, Flight> day = dates.get(date);
+            if (day != null) {
+                results.addAll(day.values());
+            }
+        } else {
+            for (Map<String, Flight> day : dates.tailMap(today, true).values()) {
+                results.addAll(day.values());
+            }
+        }
+        results.removeIf(f -> f.getFlightDate().isBefore(today));
+        results.sort(SearchCursor.ORDER);
+        return results;
+    }
+
+    int routeCount() {
+        return byRoute.size();
+    }
+
+    private synchronized boolean repair(Flight fresh, long readStart) {
+        Entry current = byId.get(fresh.getId());
+        if (current != null && (current.write() > readStart || current.flight().equals(withoutSeats(fresh)))) {
+            return false;
+        }
+        if (current != null) {
+            invalidate(current.flight());
+        }
+        put(fresh);
+        invalidate(fresh);
+        return true;
+    }
+
+    private synchronized boolean evict(String id, Predicate<String> live, long readStart, LocalDate today) {
+        Entry current = byId.get(id);
+        if (current == null) {
+            return false;
+        }
+        boolean past = current.flight().getFlightDate().isBefore(today);
+        if (!past && (live.test(id) || current.write() > readStart)) {
+            return false;
+        }
+        remove(id);
+        invalidate(current.flight());
+        return true;
+    }
+
+    private static boolean isUpcoming(Flight f, LocalDate today) {
+        return f.getFlightDate() != null && !f.getFlightDate().isBefore(today);
+    }
+
+    private void invalidate(Flight flight) {
+        searchCache.invalidateRoute(Flight.normalizePlace(flight.getFromPlace()),
+                Flight.normalizePlace(flight.getToPlace()));
+    }
+
+    private void unlink(Flight old) {
+        Route route = Route.of(old.getFromPlace(), old.getToPlace());
+        NavigableMap<LocalDate, Map<String, Flight>> dates = byRoute.get(route);
+        if (dates == null) return;
+
+        Map<String, Flight> day = dates.get(old.getFlightDate());
+        if (day != null) {
+            day.remove(old.getId());
+            if (day.isEmpty()) {
+                dates.remove(old.getFlightDate());
+            }
+        }
+        if (dates.isEmpty()) {
+            byRoute.remove(route);
+        }
+    }
+
+    private static Flight withoutSeats(Flight f) {
+        Flight copy = new Flight();
+        copy.setId(f.getId());
+        copy.setFromPlace(f.getFromPlace());
+        copy.setToPlace(f.getToPlace());
+        copy.setFromCode(f.getFromCode());
+        copy.setToCode(f.getToCode());
+        copy.setTotalSeats(f.getTotalSeats());
+        copy.setAvailableSeats(f.getAvailableSeats());
+        copy.setDepartureTime(f.getDepartureTime());
+        copy.setFlightDate(f.getFlightDate());
+        copy.setArrivalTime(f.getArrivalTime());
+        copy.setPrice(f.getPrice());
+        copy.setSeatColumns(f.getSeatColumns());
+        copy.setRevision(f.getRevision());
+        return copy;
+    }
+}
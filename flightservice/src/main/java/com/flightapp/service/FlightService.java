@@ -1,9 +1,14 @@
 package com.flightapp.service;
 
+import com.flightapp.dto.FlightSearchPage;
+import com.flightapp.dto.FlightSummary;
 import com.flightapp.exception.NotFoundException;
 import com.flightapp.model.Flight;
+import com.flightapp.model.SeatLayout;
+import com.flightapp.model.SeatMap;
 import com.flightapp.repository.FlightRepository;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
@@ -11,16 +16,47 @@ import org.springframework.web.server.ResponseStatusException;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import java.time.Instant;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Service
 public class FlightService {
 
+    // Retries for the optimistic release paths before giving up with 409
+    private static final int MAX_UPDATE_ATTEMPTS = 3;
+
     private final FlightRepository repo;
+    private final FlightSearchIndex searchIndex;
+    private final FlightSearchCache searchCache;
+    private final FlightChangePublisher changePublisher;
+    // Most recently used layouts, by flight id
+    private final Map<String, SeatLayout> layouts;
+
+    private final int maxPageSize;
 
-    public FlightService(FlightRepository repo) {
+    public FlightService(FlightRepository repo,
+                         FlightSearchIndex searchIndex,
+                         FlightSearchCache searchCache,
+                         FlightChangePublisher changePublisher,
+                         @Value("${flight.search.max-page-size:100}") int maxPageSize,
+                         @Value("${flight.seat-layouts.max-entries:10000}") int maxLayouts) {
         this.repo = repo;
+        this.searchIndex = searchIndex;
+        this.searchCache = searchCache;
+        this.changePublisher = changePublisher;
+        this.maxPageSize = maxPageSize;
+        this.layouts = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, SeatLayout> eldest) {
+                return size() > maxLayouts;
+            }
+        };
     }
 
     public Flight addOrUpdateInventory(String id, Flight payload) {
@@ -55,32 +91,109 @@ public class FlightService {
         if (repo.existsById(id))
             throw new ResponseStatusException(HttpStatus.CONFLICT, "Flight number already exists");
         
-        // Initialize bookedSeats set
-        if (payload.getBookedSeats() == null) {
-            payload.setBookedSeats(new java.util.HashSet<>());
-        }
-        
-        return repo.save(payload);
+        if (payload.getSeatColumns() == null || payload.getSeatColumns().isBlank())
+            payload.setSeatColumns(SeatLayout.DEFAULT_COLUMNS);
+        payload.setSeatColumns(payload.getSeatColumns().toUpperCase(Locale.ROOT));
+        if (!SeatLayout.isValidColumns(payload.getSeatColumns()))
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Seat columns must be distinct letters A-Z");
+
+        payload.setFromCode(Flight.normalizePlace(payload.getFromPlace()));
+        payload.setToCode(Flight.normalizePlace(payload.getToPlace()));
+
+        // Start with an empty seat bitmap sized for every seat
+        payload.setSeatMap(SeatMap.forCapacity(payload.getTotalSeats()));
+        payload.setUpdatedAt(Instant.now());
+
+        Flight saved = repo.save(payload);
+        flightChanged(saved);
+        return saved;
     }
 
     public List<Flight> search(String from, String to, java.time.LocalDate date) {
         LocalDate today = LocalDate.now();
-        List<Flight> results;
-        
-        if (date == null) {
-            results = repo.findByFromPlaceIgnoreCaseAndToPlaceIgnoreCase(from, to);
-        } else {
-            // Prevent searching for flights on past dates
-            if (date.isBefore(today)) {
-                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cannot search for flights on past dates");
+        rejectPastDate(date, today);
+
+        // Served from memory once the index has been loaded at startup
+        if (searchIndex.isLoaded()) {
+            return searchIndex.search(from, to, date, today);
+        }
+
+        String fromCode = Flight.normalizePlace(from);
+        String toCode = Flight.normalizePlace(to);
+        return date == null
+                ? repo.findByFromCodeAndToCodeAndFlightDateGreaterThanEqualOrderByFlightDateAscDepartureTimeAscIdAsc(fromCode, toCode, today)
+                : repo.findByFromCodeAndToCodeAndFlightDateOrderByDepartureTimeAscIdAsc(fromCode, toCode, date);
+    }
+
+    /**
+     * One page of search results, starting after {@code pageToken} when given.
+     * The returned page carries the token for the next page, or null on the last.
+     */
+    public FlightSearchPage searchPage(String from, String to, LocalDate date, Integer size, String pageToken) {
+        if (size != null && size <= 0)
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Page size must be > 0");
+        int limit = size == null ? maxPageSize : Math.min(size, maxPageSize);
+        String token = (pageToken == null || pageToken.isBlank()) ? null : pageToken;
+
+        return searchCache.get(Flight.normalizePlace(from), Flight.normalizePlace(to), date, limit, token,
+                () -> loadPage(from, to, date, limit, token));
+    }
+
+    private FlightSearchPage loadPage(String from, String to, LocalDate date, int limit, String pageToken) {
+        SearchCursor cursor = pageToken == null ? null : SearchCursor.decode(pageToken);
+
+        // One extra flight tells whether there is another page
+        List<Flight> flights;
+        if (searchIndex.isLoaded()) {
+            flights = new ArrayList<>(limit + 1);
+            for (Flight f : search(from, to, date)) {
+                if (cursor != null && !cursor.precedes(f)) continue;
+                flights.add(f);
+                if (flights.size() > limit) break;
             }
-            results = repo.findByFromPlaceIgnoreCaseAndToPlaceIgnoreCaseAndFlightDate(from, to, date);
+        } else {
+            LocalDate today = LocalDate.now();
+            rejectPastDate(date, today);
+            flights = repo.findSearchPage(Flight.normalizePlace(from), Flight.normalizePlace(to), date, today,
+                    cursor == null ? null : cursor.position(), limit + 1);
+        }
+
+        boolean more = flights.size() > limit;
+        List<FlightSummary> page = new ArrayList<>(Math.min(flights.size(), limit));
+        for (Flight f : flights.subList(0, Math.min(flights.size(), limit))) {
+            page.add(FlightSummary.of(f));
+        }
+        return new FlightSearchPage(page, more ? SearchCursor.after(flights.get(limit - 1)).encode() : null);
+    }
+
+    /**
+     * All matching flights straight off a Mongo cursor, for callers that write
+     * results out as they go. The caller must close the stream.
+     */
+    public Stream<FlightSummary> streamSearch(String from, String to, LocalDate date) {
+        LocalDate today = LocalDate.now();
+        rejectPastDate(date, today);
+
+        String fromCode = Flight.normalizePlace(from);
+        String toCode = Flight.normalizePlace(to);
+        Stream<Flight> flights = date == null
+                ? repo.streamByFromCodeAndToCodeAndFlightDateGreaterThanEqualOrderByFlightDateAscDepartureTimeAscIdAsc(fromCode, toCode, today)
+                : repo.streamByFromCodeAndToCodeAndFlightDateOrderByDepartureTimeAscIdAsc(fromCode, toCode, date);
+        return flights.map(FlightSummary::of);
+    }
+
+    // Every successful write goes through here so search never serves a stale route
+    private void flightChanged(Flight f) {
+        searchIndex.put(f);
+        searchCache.invalidateRoute(Flight.normalizePlace(f.getFromPlace()), Flight.normalizePlace(f.getToPlace()));
+        changePublisher.flightChanged(f);
+    }
+
+    private static void rejectPastDate(LocalDate date, LocalDate today) {
+        // Prevent searching for flights on past dates
+        if (date != null && date.isBefore(today)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cannot search for flights on past dates");
         }
-        
-        // Filter out flights with dates in the past
-        return results.stream()
-                .filter(flight -> !flight.getFlightDate().isBefore(today))
-                .collect(Collectors.toList());
     }
 
     public Flight getById(String id) {
@@ -89,82 +202,131 @@ public class FlightService {
     }
 
     public List<String> getBookedSeats(String id) {
-        Flight flight = getById(id);
-        if (flight.getBookedSeats() == null) {
-            return List.of();
-        }
-        return List.copyOf(flight.getBookedSeats());
+        return getById(id).getBookedSeats();
     }
 
-    public void reserveSeats(String flightId, List<String> seatNumbers) {
-        Flight f = getById(flightId);
+    /**
+     * Reserves the seats and returns the flight as it stands afterwards, so a
+     * booking can validate and reserve in one call.
+     */
+    public FlightSummary validateAndReserveSeats(String flightId, List<String> seatNumbers) {
+        return FlightSummary.of(reserveSeats(flightId, seatNumbers));
+    }
+
+    public Flight reserveSeats(String flightId, List<String> seatNumbers) {
         if (seatNumbers == null || seatNumbers.isEmpty()) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Seat numbers required");
         }
+        SeatLayout layout = layoutOf(flightId);
+        Set<Integer> seats = seatIndexes(layout, seatNumbers);
+
+        // Single conditional update: no seat already booked, enough seats left, not departed
+        Flight updated = repo.reserveSeatsAtomically(flightId, SeatMap.masksOf(seats), seats.size(),
+                Instant.now(), LocalDate.now());
+        if (updated != null) {
+            flightChanged(updated);
+            return updated;
+        }
+
+        // The update did not match; read the flight once to report why
+        Flight f = getById(flightId);
+        if (f.getFlightDate() != null && f.getFlightDate().isBefore(LocalDate.now()))
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cannot book flights on past dates");
         if (f.getDepartureTime() != null && f.getDepartureTime().isBefore(Instant.now()))
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cannot reserve seats for past flights");
+        if (f.isSeatMapInvalid())
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Seat selection is unavailable for this flight");
 
-        // Initialize set
-        if (f.getBookedSeats() == null) {
-            f.setBookedSeats(new java.util.HashSet<>());
+        if (f.getSeatMap() != null) {
+            for (int seat : seats) {
+                if (f.getSeatMap().contains(seat)) {
+                    throw new ResponseStatusException(HttpStatus.CONFLICT, "Seat already booked: " + layout.labelOf(seat));
+                }
+            }
         }
+        throw new ResponseStatusException(HttpStatus.CONFLICT, "Not enough seats");
+    }
 
-        // Check availability and duplicates
+    public void releaseSeats(String flightId, List<String> seatNumbers) {
+        Flight f = getById(flightId);
+        if (seatNumbers == null || seatNumbers.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Seat numbers required");
+        }
+        SeatLayout layout = f.getSeatLayout();
+        Set<Integer> seats = new LinkedHashSet<>();
         for (String s : seatNumbers) {
-            if (s == null || s.isBlank()) {
-                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid seat number");
-            }
-            if (f.getBookedSeats().contains(s)) {
-                throw new ResponseStatusException(HttpStatus.CONFLICT, "Seat already booked: " + s);
+            int index = layout.indexOf(s);
+            if (index >= 0) {
+                seats.add(index);
             }
         }
 
-        if (f.getAvailableSeats() < seatNumbers.size()) {
-            throw new ResponseStatusException(HttpStatus.CONFLICT, "Not enough seats");
+        for (int attempt = 0; attempt < MAX_UPDATE_ATTEMPTS; attempt++) {
+            Set<Integer> booked = new LinkedHashSet<>();
+            for (int seat : seats) {
+                if (f.getSeatMap() != null && f.getSeatMap().contains(seat)) {
+                    booked.add(seat);
+                }
+            }
+            if (booked.isEmpty()) {
+                // No known seats to release; don't fail, but no-op
+                return;
+            }
+            Flight updated = repo.releaseSeatsAtomically(flightId, SeatMap.masksOf(booked), booked.size());
+            if (updated != null) {
+                flightChanged(updated);
+                return;
+            }
+            // Seat map changed underneath us; re-read and retry
+            f = getById(flightId);
         }
-
-        f.getBookedSeats().addAll(seatNumbers);
-        f.setAvailableSeats(f.getAvailableSeats() - seatNumbers.size());
-        repo.save(f);
+        throw new ResponseStatusException(HttpStatus.CONFLICT, "Seats changed concurrently, please retry");
     }
 
-    public void releaseSeats(String flightId, List<String> seatNumbers) {
-        Flight f = getById(flightId);
-        if (seatNumbers == null || seatNumbers.isEmpty()) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Seat numbers required");
+    // Seat columns and total seats are fixed once a flight is created, so layouts never go stale
+    private SeatLayout layoutOf(String flightId) {
+        synchronized (layouts) {
+            SeatLayout layout = layouts.get(flightId);
+            if (layout != null) return layout;
         }
-        if (f.getBookedSeats() == null) {
-            f.setBookedSeats(new java.util.HashSet<>());
+        SeatLayout layout = getById(flightId).getSeatLayout();
+        synchronized (layouts) {
+            layouts.put(flightId, layout);
         }
+        return layout;
+    }
 
-        int removed = 0;
+    private static Set<Integer> seatIndexes(SeatLayout layout, List<String> seatNumbers) {
+        Set<Integer> seats = new LinkedHashSet<>();
         for (String s : seatNumbers) {
-            if (f.getBookedSeats().remove(s)) {
-                removed++;
+            if (s == null || s.isBlank()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid seat number");
             }
+            int index = layout.indexOf(s.trim());
+            if (index < 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid seat number: " + s);
+            }
+            seats.add(index);
         }
-        if (removed == 0) {
-            // No known seats removed; don't fail, but no-op
-        }
-        f.setAvailableSeats(Math.min(f.getTotalSeats(), f.getAvailableSeats() + removed));
-        repo.save(f);
+        return seats;
     }
 
     @CircuitBreaker(name = "flight", fallbackMethod = "reserveFallback")
     public void reserve(String flightId, int seats) {
-        Flight f = getById(flightId);
-
         if (seats <= 0)
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Seats must be > 0");
 
+        Flight updated = repo.reserveCountAtomically(flightId, seats, Instant.now());
+        if (updated != null) {
+            flightChanged(updated);
+            return;
+        }
+
+        Flight f = getById(flightId);
         if (f.getDepartureTime() != null && f.getDepartureTime().isBefore(Instant.now()))
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cannot reserve seats for past flights");
 
-        if (f.getAvailableSeats() < seats)
-            throw new ResponseStatusException(HttpStatus.CONFLICT, "Not enough seats");
-
-        f.setAvailableSeats(f.getAvailableSeats() - seats);
-        repo.save(f);
+        throw new ResponseStatusException(HttpStatus.CONFLICT, "Not enough seats");
     }
 
     // fallback signature must match original args + Throwable
@@ -174,17 +336,19 @@ public class FlightService {
 
     @CircuitBreaker(name = "flight", fallbackMethod = "releaseFallback")
     public void release(String flightId, int seats) {
-        Flight f = getById(flightId);
-
         if (seats <= 0)
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Seats must be > 0");
 
-        f.setAvailableSeats(Math.min(
-                f.getTotalSeats(),
-                f.getAvailableSeats() + seats
-        ));
-
-        repo.save(f);
+        for (int attempt = 0; attempt < MAX_UPDATE_ATTEMPTS; attempt++) {
+            Flight f = getById(flightId);
+            int updated = Math.min(f.getTotalSeats(), f.getAvailableSeats() + seats);
+            Flight saved = repo.compareAndSetAvailableSeats(flightId, f.getAvailableSeats(), updated);
+            if (saved != null) {
+                flightChanged(saved);
+                return;
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.CONFLICT, "Seats changed concurrently, please retry");
     }
 
     public void releaseFallback(String flightId, int seats, Throwable t) {
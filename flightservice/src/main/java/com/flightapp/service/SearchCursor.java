@@ -0,0 +1,59 @@
+package com.flightapp.service;
+
+import com.flightapp.model.Flight;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.Comparator;
+
+/**
+ * Position in a search result, ordered by flight date, departure time and
+ * id. Encoded as an opaque URL-safe page token holding the last flight
+ * returned, so the next page starts strictly after it even if flights are
+ * added in between.
+ */
+public record SearchCursor(LocalDate flightDate, Instant departureTime, String id) {
+
+    public static final Comparator<Flight> ORDER = Comparator
+            .comparing(Flight::getFlightDate)
+            .thenComparing(Flight::getDepartureTime, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Flight::getId);
+
+    public static SearchCursor after(Flight last) {
+        return new SearchCursor(last.getFlightDate(), last.getDepartureTime(), last.getId());
+    }
+
+    public boolean precedes(Flight f) {
+        return ORDER.compare(position(), f) < 0;
+    }
+
+    /** A flight holding just the fields the cursor orders by. */
+    public Flight position() {
+        Flight position = new Flight();
+        position.setFlightDate(flightDate);
+        position.setDepartureTime(departureTime);
+        position.setId(id);
+        return position;
+    }
+
+    public String encode() {
+        String raw = flightDate + "|" + (departureTime == null ? "" : departureTime) + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SearchCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 3);
+            Instant departure = parts[1].isEmpty() ? null : Instant.parse(parts[1]);
+            return new SearchCursor(LocalDate.parse(parts[0]), departure, parts[2]);
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid page token");
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.flightapp.config;
+
+import com.flightapp.security.IdentityHeaders;
+import com.flightapp.security.IdentitySigner;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdentityResolverTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+    private final IdentityResolver resolver = new IdentityResolver(SECRET, SECRET, true, true, 100);
+    private final IdentitySigner signer = new IdentitySigner(SECRET);
+
+    private MockHttpServletRequest signedRequest(String user, String roles, long expires, String signedRoles) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(IdentityHeaders.USER, user);
+        request.addHeader(IdentityHeaders.ROLES, roles);
+        request.addHeader(IdentityHeaders.EXPIRES, String.valueOf(expires));
+        request.addHeader(IdentityHeaders.SIGNATURE, signer.sign(user, signedRoles, expires));
+        return request;
+    }
+
+    @Test
+    public void signedHeadersResolveToTypedPrincipal() {
+        long expires = System.currentTimeMillis() / 1000 + 600;
+
+        AuthenticatedUser user = resolver.resolve(signedRequest("admin", "ROLE_ADMIN,USER", expires, "ROLE_ADMIN,USER"));
+
+        assertEquals("admin", user.name());
+        assertTrue(user.hasRole("ADMIN"));
+        assertTrue(user.hasRole("USER"));
+        assertFalse(user.hasRole("ADMINS"));
+    }
+
+    @Test
+    public void tamperedOrExpiredHeadersAreRejected() {
+        long expires = System.currentTimeMillis() / 1000 + 600;
+        assertThrows(ResponseStatusException.class,
+                () -> resolver.resolve(signedRequest("bob", "ADMIN", expires, "USER")));
+
+        long past = System.currentTimeMillis() / 1000 - 1;
+        assertThrows(ResponseStatusException.class,
+                () -> resolver.resolve(signedRequest("bob", "USER", past, "USER")));
+    }
+
+    @Test
+    public void fallsBackToBearerTokenWithoutHeaders() {
+        String token = Jwts.builder()
+                .setSubject("admin")
+                .claim("roles", "ADMIN")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+
+        assertTrue(resolver.resolve(request).hasRole("ADMIN"));
+    }
+}
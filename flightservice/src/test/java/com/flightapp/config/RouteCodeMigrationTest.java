@@ -0,0 +1,103 @@
+package com.flightapp.config;
+
+import com.flightapp.model.Flight;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class RouteCodeMigrationTest {
+
+    private final MongoTemplate mongo = Mockito.mock(MongoTemplate.class);
+    private final IndexOperations indexOps = Mockito.mock(IndexOperations.class);
+    private final BulkOperations ops = Mockito.mock(BulkOperations.class);
+
+    private void stubMongo(List<Document> legacy) {
+        MongoConverter converter = Mockito.mock(MongoConverter.class);
+        MongoMappingContext context = new MongoMappingContext();
+        context.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        doReturn(context).when(converter).getMappingContext();
+        when(mongo.getConverter()).thenReturn(converter);
+        when(mongo.indexOps(Flight.class)).thenReturn(indexOps);
+        when(mongo.bulkOps(any(BulkOperations.BulkMode.class), eq("flights"))).thenReturn(ops);
+        when(mongo.find(any(Query.class), eq(Document.class), eq("flights")))
+                .thenReturn(legacy)
+                .thenReturn(List.of());
+    }
+
+    @Test
+    public void createsTheRouteIndexInSearchOrder() {
+        stubMongo(List.of());
+
+        new RouteCodeMigration(mongo, 10).run();
+
+        ArgumentCaptor<IndexDefinition> indexes = ArgumentCaptor.forClass(IndexDefinition.class);
+        verify(indexOps, atLeastOnce()).ensureIndex(indexes.capture());
+        Document route = indexes.getAllValues().stream()
+                .map(IndexDefinition::getIndexKeys)
+                .filter(keys -> keys.containsKey("fromCode"))
+                .findFirst().orElseThrow();
+        assertEquals(List.of("fromCode", "toCode", "flightDate", "departureTime", "_id"), new ArrayList<>(route.keySet()));
+        assertTrue(indexes.getAllValues().stream()
+                .anyMatch(index -> index.getIndexKeys().keySet().equals(Set.of("flightDate"))));
+        verifyNoInteractions(ops);
+        verify(indexOps, never()).dropIndex(any());
+    }
+
+    @Test
+    public void dropsTheRouteIndexItReplaced() {
+        stubMongo(List.of());
+        when(indexOps.getIndexInfo()).thenReturn(List.of(
+                new IndexInfo(List.of(), Flight.LEGACY_ROUTE_INDEX, false, false, null)));
+
+        new RouteCodeMigration(mongo, 10).run();
+
+        verify(indexOps).dropIndex(Flight.LEGACY_ROUTE_INDEX);
+    }
+
+    @Test
+    public void backfillsNormalizedRouteCodes() {
+        stubMongo(List.of(new Document("_id", "F1").append("fromPlace", " delhi ").append("toPlace", "Mumbai")));
+
+        new RouteCodeMigration(mongo, 10).run();
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(ops).updateOne(any(Query.class), update.capture());
+        Document set = (Document) update.getValue().getUpdateObject().get("$set");
+        assertEquals("DELHI", set.get("fromCode"));
+        assertEquals("MUMBAI", set.get("toCode"));
+        verify(ops).execute();
+    }
+
+    @Test
+    public void backfillOnlyTouchesFlightsWithoutCodes() {
+        stubMongo(List.of());
+
+        new RouteCodeMigration(mongo, 10).run();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongo).find(query.capture(), eq(Document.class), eq("flights"));
+        assertEquals(new Document("$exists", false), query.getValue().getQueryObject().get("fromCode"));
+        assertEquals(10, query.getValue().getLimit());
+    }
+}
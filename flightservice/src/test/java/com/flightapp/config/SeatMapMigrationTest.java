@@ -0,0 +1,79 @@
+package com.flightapp.config;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class SeatMapMigrationTest {
+
+    private static Document legacy(String id, String... booked) {
+        return new Document("_id", id)
+                .append("totalSeats", 12)
+                .append("seatColumns", "ABCDEF")
+                .append("bookedSeats", List.of(booked));
+    }
+
+    @Test
+    public void bookedSeatsBecomeBits() {
+        SeatMapMigration migration = new SeatMapMigration(Mockito.mock(MongoTemplate.class), 10);
+
+        Update update = migration.toSeatMapUpdate(legacy("F1", "1A", " 2b "));
+
+        assertEquals(List.of((1L << 0) | (1L << 7)),
+                ((Document) update.getUpdateObject().get("$set")).get("seatMap.words"));
+    }
+
+    @Test
+    public void unmappableSeatIsNeverDropped() {
+        SeatMapMigration migration = new SeatMapMigration(Mockito.mock(MongoTemplate.class), 10);
+
+        assertNull(migration.toSeatMapUpdate(legacy("F1", "1A", "14A")));
+    }
+
+    @Test
+    public void unmappableFlightIsQuarantinedAndStartupContinues() {
+        MongoTemplate mongo = Mockito.mock(MongoTemplate.class);
+        BulkOperations ops = Mockito.mock(BulkOperations.class);
+        when(mongo.bulkOps(any(BulkOperations.BulkMode.class), eq("flights"))).thenReturn(ops);
+        when(mongo.find(any(Query.class), eq(Document.class), eq("flights")))
+                .thenReturn(List.of(legacy("F1", "1A"), legacy("F2", "Z9")))
+                .thenReturn(List.of());
+
+        assertDoesNotThrow(() -> new SeatMapMigration(mongo, 10).run());
+
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(ops, times(2)).updateOne(queries.capture(), updates.capture());
+        verify(ops).execute();
+
+        assertEquals("F2", queries.getAllValues().get(1).getQueryObject().get("_id"));
+        Document quarantine = (Document) updates.getAllValues().get(1).getUpdateObject().get("$set");
+        assertEquals(new Document("seatMapInvalid", true), quarantine);
+        // The legacy seats stay until someone fixes them
+        assertNull(updates.getAllValues().get(1).getUpdateObject().get("$unset"));
+    }
+
+    @Test
+    public void migratedFlightLeavesQuarantine() {
+        SeatMapMigration migration = new SeatMapMigration(Mockito.mock(MongoTemplate.class), 10);
+
+        Update update = migration.toSeatMapUpdate(legacy("F1", "1A"));
+
+        assertTrue(((Document) update.getUpdateObject().get("$unset")).containsKey("seatMapInvalid"));
+    }
+}
@@ -0,0 +1,91 @@
+package com.flightapp.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flightapp.dto.FlightSearchPage;
+import com.flightapp.dto.FlightSummary;
+import com.flightapp.service.FlightService;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+public class FlightControllerTest {
+
+    private final FlightService svc = Mockito.mock(FlightService.class);
+    private final MockMvc mvc = MockMvcBuilders
+            .standaloneSetup(new FlightController(svc, new ObjectMapper().findAndRegisterModules()))
+            .build();
+
+    private static FlightSummary summary(String id) {
+        return new FlightSummary(id, "Delhi", "Mumbai", 60, 60, null, LocalDate.now().plusDays(1), null, 100.0, "ABCDEF");
+    }
+
+    @Test
+    public void pageTokenIsReturnedInHeader() throws Exception {
+        when(svc.searchPage("Delhi", "Mumbai", null, 2, null))
+                .thenReturn(new FlightSearchPage(List.of(summary("F1"), summary("F2")), "next"));
+
+        mvc.perform(get("/api/flights").param("from", "Delhi").param("to", "Mumbai").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(FlightController.NEXT_PAGE_TOKEN_HEADER, "next"))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].id").value("F2"));
+    }
+
+    @Test
+    public void lastPageHasNoTokenHeader() throws Exception {
+        when(svc.searchPage(eq("Delhi"), eq("Mumbai"), isNull(), isNull(), eq("abc")))
+                .thenReturn(new FlightSearchPage(List.of(summary("F3")), null));
+
+        mvc.perform(get("/api/flights").param("from", "Delhi").param("to", "Mumbai").param("pageToken", "abc"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(FlightController.NEXT_PAGE_TOKEN_HEADER));
+    }
+
+    @Test
+    public void ndjsonWritesOneFlightPerLine() throws Exception {
+        when(svc.streamSearch("Delhi", "Mumbai", null)).thenReturn(Stream.of(summary("F1"), summary("F2")));
+
+        MvcResult started = mvc.perform(get("/api/flights").param("from", "Delhi").param("to", "Mumbai")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"id\":\"F1\""));
+        assertTrue(lines[1].contains("\"id\":\"F2\""));
+        verify(svc, never()).searchPage(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void ndjsonRejectsPastDateBeforeStreaming() throws Exception {
+        mvc.perform(get("/api/flights").param("from", "Delhi").param("to", "Mumbai")
+                        .param("date", LocalDate.now().minusDays(1).toString())
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isBadRequest());
+        verify(svc, never()).streamSearch(any(), any(), any());
+    }
+}
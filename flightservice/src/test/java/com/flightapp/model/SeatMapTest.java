@@ -0,0 +1,54 @@
+package com.flightapp.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SeatMapTest {
+
+    @Test
+    public void layoutMapsLabelsToDenseIndexes() {
+        SeatLayout layout = new SeatLayout("ABCDEF", 180);
+
+        assertEquals(0, layout.indexOf("1A"));
+        assertEquals(68, layout.indexOf("12c"));
+        assertEquals("12C", layout.labelOf(68));
+        assertEquals(-1, layout.indexOf("31A"));
+        assertEquals(-1, layout.indexOf("0A"));
+        assertEquals(-1, layout.indexOf("12G"));
+        assertEquals(-1, layout.indexOf("A12"));
+    }
+
+    @Test
+    public void seatMapTracksOccupancyAcrossWords() {
+        SeatLayout layout = new SeatLayout("ABCDEF", 180);
+        SeatMap map = SeatMap.forCapacity(180);
+
+        map.add(layout.indexOf("1A"));
+        map.add(layout.indexOf("12C"));
+        map.add(layout.indexOf("30F"));
+
+        assertEquals(3, map.getWords().length);
+        assertTrue(map.contains(68));
+        assertEquals(3, map.cardinality());
+        assertEquals(List.of("1A", "12C", "30F"), map.labels(layout));
+
+        map.remove(68);
+        assertFalse(map.contains(68));
+        assertEquals(2, map.cardinality());
+    }
+
+    @Test
+    public void masksGroupIndexesByWord() {
+        Map<Integer, Long> masks = SeatMap.masksOf(List.of(0, 3, 64, 127));
+
+        assertEquals(2, masks.size());
+        assertEquals(0b1001L, masks.get(0));
+        assertEquals(1L | (1L << 63), masks.get(1));
+    }
+}
@@ -0,0 +1,142 @@
+package com.flightapp.repository;
+
+import com.flightapp.model.Flight;
+import com.flightapp.model.SeatMap;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class FlightRepositoryImplTest {
+
+    private final MongoTemplate mongo = Mockito.mock(MongoTemplate.class);
+    private final FlightRepositoryImpl repo = new FlightRepositoryImpl(mongo);
+
+    private Query query;
+    private Update update;
+
+    private void capture() {
+        ArgumentCaptor<Query> q = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> u = ArgumentCaptor.forClass(Update.class);
+        verify(mongo).findAndModify(q.capture(), u.capture(), any(FindAndModifyOptions.class), eq(Flight.class));
+        query = q.getValue();
+        update = u.getValue();
+    }
+
+    private Document queryField(String name) {
+        return (Document) query.getQueryObject().get(name);
+    }
+
+    private Document updateOp(String op) {
+        return (Document) update.getUpdateObject().get(op);
+    }
+
+    @Test
+    public void reserveIsOneConditionalUpdate() {
+        Instant now = Instant.now();
+        LocalDate today = LocalDate.now();
+        // Seats 1 and 65: bit 1 of word 0 and bit 1 of word 1
+        repo.reserveSeatsAtomically("F1", SeatMap.masksOf(Set.of(1, 65)), 2, now, today);
+        capture();
+
+        assertEquals("F1", query.getQueryObject().get("_id"));
+        assertEquals(2, queryField("availableSeats").get("$gte"));
+        assertEquals(new Document("$lt", now), queryField("departureTime").get("$not"));
+        assertEquals(new Document("$lt", today), queryField("flightDate").get("$not"));
+        assertEquals(true, queryField("seatMapInvalid").get("$ne"));
+        assertEquals(List.of(1), queryField("seatMap.words.0").get("$bitsAllClear"));
+        assertEquals(List.of(1), queryField("seatMap.words.1").get("$bitsAllClear"));
+
+        assertEquals(-2, updateOp("$inc").get("availableSeats"));
+        assertEquals(1, updateOp("$inc").get("revision"));
+        assertTrue(updateOp("$currentDate").containsKey("updatedAt"));
+        assertEquals(new Document("or", 2L), updateOp("$bit").get("seatMap.words.0"));
+        assertEquals(new Document("or", 2L), updateOp("$bit").get("seatMap.words.1"));
+    }
+
+    @Test
+    public void releaseOnlyMatchesWhileSeatsAreStillBooked() {
+        repo.releaseSeatsAtomically("F1", SeatMap.masksOf(Set.of(0, 3)), 2);
+        capture();
+
+        assertEquals(List.of(0, 3), queryField("seatMap.words.0").get("$bitsAllSet"));
+        assertEquals(2, updateOp("$inc").get("availableSeats"));
+        assertEquals(new Document("and", ~9L), updateOp("$bit").get("seatMap.words.0"));
+    }
+
+    @Test
+    public void countReserveChecksAvailabilityInTheSameUpdate() {
+        Instant now = Instant.now();
+        repo.reserveCountAtomically("F1", 3, now);
+        capture();
+
+        assertEquals(3, queryField("availableSeats").get("$gte"));
+        assertEquals(new Document("$lt", now), queryField("departureTime").get("$not"));
+        assertEquals(-3, updateOp("$inc").get("availableSeats"));
+    }
+
+    @Test
+    public void compareAndSetMatchesOnlyTheExpectedCount() {
+        repo.compareAndSetAvailableSeats("F1", 5, 7);
+        capture();
+
+        assertEquals(5, query.getQueryObject().get("availableSeats"));
+        assertEquals(7, updateOp("$set").get("availableSeats"));
+        assertEquals(1, updateOp("$inc").get("revision"));
+    }
+
+    @Test
+    public void searchPageSeeksPastTheCursor() {
+        LocalDate today = LocalDate.now();
+        Flight after = new Flight();
+        after.setFlightDate(today.plusDays(1));
+        after.setDepartureTime(Instant.parse("2030-01-01T07:00:00Z"));
+        after.setId("F2");
+
+        repo.findSearchPage("DELHI", "MUMBAI", null, today, after, 3);
+        ArgumentCaptor<Query> q = ArgumentCaptor.forClass(Query.class);
+        verify(mongo).find(q.capture(), eq(Flight.class));
+        query = q.getValue();
+
+        assertEquals("DELHI", query.getQueryObject().get("fromCode"));
+        assertEquals(today, queryField("flightDate").get("$gte"));
+        List<?> or = (List<?>) query.getQueryObject().get("$or");
+        assertEquals(new Document("flightDate", new Document("$gt", after.getFlightDate())), or.get(0));
+        Document sameDay = (Document) or.get(1);
+        assertEquals(after.getFlightDate(), sameDay.get("flightDate"));
+        assertEquals(List.of(
+                new Document("departureTime", new Document("$gt", after.getDepartureTime())),
+                new Document("departureTime", after.getDepartureTime()).append("_id", new Document("$gt", "F2"))),
+                sameDay.get("$or"));
+        assertEquals(new Document("flightDate", 1).append("departureTime", 1).append("_id", 1), query.getSortObject());
+        assertEquals(3, query.getLimit());
+        assertEquals(0, query.getFieldsObject().get("seatMap"));
+    }
+
+    @Test
+    public void firstSearchPageOnADayHasNoCursor() {
+        LocalDate day = LocalDate.now().plusDays(1);
+
+        repo.findSearchPage("DELHI", "MUMBAI", day, LocalDate.now(), null, 3);
+        ArgumentCaptor<Query> q = ArgumentCaptor.forClass(Query.class);
+        verify(mongo).find(q.capture(), eq(Flight.class));
+
+        assertEquals(day, q.getValue().getQueryObject().get("flightDate"));
+        assertNull(q.getValue().getQueryObject().get("$or"));
+    }
+}
@@ -0,0 +1,91 @@
+package com.flightapp.service;
+
+import com.flightapp.dto.FlightSearchPage;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FlightSearchCacheTest {
+
+    private static final LocalDate DAY = LocalDate.of(2030, 1, 2);
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private Supplier<FlightSearchPage> loader(String token) {
+        return () -> {
+            loads.incrementAndGet();
+            return new FlightSearchPage(List.of(), token);
+        };
+    }
+
+    @Test
+    public void repeatedSearchIsServedFromCache() {
+        FlightSearchCache cache = new FlightSearchCache(new SimpleMeterRegistry(), 100, 60_000);
+
+        FlightSearchPage first = cache.get("DEL", "BOM", DAY, 10, null, loader("a"));
+        FlightSearchPage second = cache.get("DEL", "BOM", DAY, 10, null, loader("b"));
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void invalidationDropsOnlyThatRoute() {
+        FlightSearchCache cache = new FlightSearchCache(new SimpleMeterRegistry(), 100, 60_000);
+        cache.get("DEL", "BOM", DAY, 10, null, loader("a"));
+        cache.get("DEL", "BOM", DAY, 10, "p2", loader("a"));
+        cache.get("DEL", "PNQ", DAY, 10, null, loader("a"));
+
+        cache.invalidateRoute("DEL", "BOM");
+
+        assertEquals(1, cache.size());
+        assertEquals("b", cache.get("DEL", "BOM", DAY, 10, null, loader("b")).getNextPageToken());
+        assertEquals("a", cache.get("DEL", "PNQ", DAY, 10, null, loader("b")).getNextPageToken());
+    }
+
+    @Test
+    public void pageLoadedAcrossAnInvalidationIsNotStored() {
+        FlightSearchCache cache = new FlightSearchCache(new SimpleMeterRegistry(), 100, 60_000);
+
+        // The route changes while the page is being computed from the old data
+        cache.get("DEL", "BOM", DAY, 10, null, () -> {
+            cache.invalidateRoute("DEL", "BOM");
+            return new FlightSearchPage(List.of(), "stale");
+        });
+
+        assertEquals(0, cache.size());
+        assertEquals("fresh", cache.get("DEL", "BOM", DAY, 10, null, loader("fresh")).getNextPageToken());
+    }
+
+    @Test
+    public void expiredEntriesAreReloaded() throws InterruptedException {
+        FlightSearchCache cache = new FlightSearchCache(new SimpleMeterRegistry(), 100, 1);
+        cache.get("DEL", "BOM", DAY, 10, null, loader("a"));
+
+        Thread.sleep(5);
+
+        assertEquals("b", cache.get("DEL", "BOM", DAY, 10, null, loader("b")).getNextPageToken());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void leastRecentlyUsedPageIsEvictedFirst() {
+        FlightSearchCache cache = new FlightSearchCache(new SimpleMeterRegistry(), 2, 60_000);
+        cache.get("DEL", "BOM", DAY, 10, null, loader("a"));
+        cache.get("DEL", "PNQ", DAY, 10, null, loader("a"));
+        cache.get("DEL", "BOM", DAY, 10, null, loader("unused"));
+
+        cache.get("DEL", "BLR", DAY, 10, null, loader("a"));
+
+        assertEquals(2, cache.size());
+        assertEquals("a", cache.get("DEL", "BOM", DAY, 10, null, loader("b")).getNextPageToken());
+        assertEquals("b", cache.get("DEL", "PNQ", DAY, 10, null, loader("b")).getNextPageToken());
+    }
+}
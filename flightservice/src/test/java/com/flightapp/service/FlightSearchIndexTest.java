@@ -0,0 +1,221 @@
+package com.flightapp.service;
+
+import com.flightapp.model.Flight;
+import com.flightapp.model.SeatMap;
+import com.flightapp.repository.FlightRepository;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class FlightSearchIndexTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    private final FlightRepository repo = Mockito.mock(FlightRepository.class);
+    private final FlightSearchCache cache = Mockito.mock(FlightSearchCache.class);
+    private final FlightSearchIndex index = new FlightSearchIndex(repo, cache, 3_600_000, 5000);
+
+    private static Flight flight(String id, String from, String to, LocalDate date, int hour) {
+        Flight f = new Flight();
+        f.setId(id);
+        f.setFromPlace(from);
+        f.setToPlace(to);
+        f.setFlightDate(date);
+        f.setDepartureTime(Instant.parse(date + "T00:00:00Z").plusSeconds(hour * 3600L));
+        f.setTotalSeats(60);
+        f.setAvailableSeats(60);
+        return f;
+    }
+
+    private static List<String> ids(List<Flight> flights) {
+        return flights.stream().map(Flight::getId).toList();
+    }
+
+    @Test
+    public void searchMatchesRouteCaseInsensitivelyInDepartureOrder() {
+        index.put(flight("F2", "Delhi", "Mumbai", TODAY.plusDays(1), 9));
+        index.put(flight("F1", "Delhi", "Mumbai", TODAY.plusDays(1), 7));
+        index.put(flight("F3", "Delhi", "Mumbai", TODAY.plusDays(2), 6));
+        index.put(flight("F4", "Delhi", "Pune", TODAY.plusDays(1), 6));
+
+        assertEquals(List.of("F1", "F2", "F3"), ids(index.search(" delhi", "MUMBAI ", null, TODAY)));
+        assertEquals(List.of("F1", "F2"), ids(index.search("Delhi", "Mumbai", TODAY.plusDays(1), TODAY)));
+    }
+
+    @Test
+    public void olderRevisionDoesNotReplaceNewer() {
+        Flight newer = flight("F1", "Delhi", "Mumbai", TODAY.plusDays(1), 7);
+        newer.setRevision(3);
+        newer.setAvailableSeats(10);
+        Flight older = flight("F1", "Delhi", "Mumbai", TODAY.plusDays(1), 7);
+        older.setRevision(2);
+
+        index.put(newer);
+        index.put(older);
+
+        assertEquals(10, index.get("F1").getAvailableSeats());
+    }
+
+    @Test
+    public void seatMapsAreNotKept() {
+        Flight f = flight("F1", "Delhi", "Mumbai", TODAY.plusDays(1), 7);
+        f.setSeatMap(SeatMap.forCapacity(60));
+        f.getSeatMap().add(3);
+
+        index.put(f);
+
+        assertFalse(index.get("F1").getSeatMap().contains(3));
+        assertTrue(f.getSeatMap().contains(3));
+    }
+
+    @Test
+    public void movingAFlightPrunesTheEmptyRoute() {
+        index.put(flight("F1", "Delhi", "Mumbai", TODAY.plusDays(1), 7));
+        index.put(flight("F1", "Delhi", "Pune", TODAY.plusDays(1), 7));
+
+        assertEquals(1, index.routeCount());
+        index.remove("F1");
+        assertEquals(0, index.routeCount());
+    }
+
+    @Test
+    public void reconcileRepairsDriftAndInvalidatesThoseRoutes() {
+        index.put(flight("F1", "Delhi", "Mumbai", TODAY.plusDays(1), 7));
+        index.put(flight("GONE", "Delhi", "Pune", TODAY.plusDays(1), 7));
+        Flight changed = flight("F1", "Delhi", "Mumbai", TODAY.plusDays(1), 7);
+        changed.setPrice(99.0);
+        when(repo.findByFlightDateGreaterThanEqual(TODAY)).thenReturn(List.of(changed));
+
+        assertEquals(2, index.reconcile());
+
+        assertEquals(99.0, index.get("F1").getPrice());
+        assertNull(index.get("GONE"));
+        verify(cache, atLeastOnce()).invalidateRoute("DELHI", "MUMBAI");
+        verify(cache).invalidateRoute("DELHI", "PUNE");
+    }
+
+    @Test
+    public void reconcileLeavesInSyncEntriesAndCacheAlone() {
+        index.put(flight("F1", "Delhi", "Mumbai", TODAY.plusDays(1), 7));
+        when(repo.findByFlightDateGreaterThanEqual(TODAY))
+                .thenReturn(List.of(flight("F1", "Delhi", "Mumbai", TODAY.plusDays(1), 7)));
+
+        assertEquals(0, index.reconcile());
+        verify(cache, never()).invalidateRoute(any(), any());
+    }
+
+    @Test
+    public void flightWrittenDuringReconcileIsKept() {
+        Flight created = flight("NEW", "Delhi", "Mumbai", TODAY.plusDays(1), 7);
+        // Created after Mongo was read, so the snapshot does not have it
+        when(repo.findByFlightDateGreaterThanEqual(TODAY)).thenAnswer(inv -> {
+            index.put(created);
+            return List.of();
+        });
+
+        assertEquals(0, index.reconcile());
+        assertNotNull(index.get("NEW"));
+    }
+
+    @Test
+    public void reconcileDropsPastFlights() {
+        index.put(flight("OLD", "Delhi", "Mumbai", TODAY.minusDays(1), 7));
+        when(repo.findByFlightDateGreaterThanEqual(TODAY)).thenReturn(List.of());
+
+        assertEquals(1, index.reconcile());
+        assertNull(index.get("OLD"));
+        assertEquals(0, index.routeCount());
+    }
+
+    @Test
+    public void laterPassesReadOnlyChangedFlights() {
+        when(repo.findByFlightDateGreaterThanEqual(TODAY))
+                .thenReturn(List.of(flight("F1", "Delhi", "Mumbai", TODAY.plusDays(1), 7)));
+        index.reconcile();
+        clearInvocations(cache);
+        Flight changed = flight("F1", "Delhi", "Mumbai", TODAY.plusDays(1), 7);
+        changed.setPrice(99.0);
+        when(repo.findByUpdatedAtGreaterThanEqual(any())).thenReturn(List.of(changed));
+
+        assertEquals(1, index.reconcile());
+
+        assertEquals(99.0, index.get("F1").getPrice());
+        verify(repo, times(1)).findByFlightDateGreaterThanEqual(any());
+        verify(cache, atLeastOnce()).invalidateRoute("DELHI", "MUMBAI");
+    }
+
+    @Test
+    public void catchUpDropsFlightsMovedOrNowInThePast() {
+        when(repo.findByFlightDateGreaterThanEqual(TODAY)).thenReturn(List.of());
+        index.reconcile();
+        index.put(flight("F1", "Delhi", "Mumbai", TODAY.plusDays(1), 7));
+        index.put(flight("OLD", "Delhi", "Pune", TODAY.minusDays(1), 7));
+        when(repo.findByUpdatedAtGreaterThanEqual(any()))
+                .thenReturn(List.of(flight("F1", "Delhi", "Mumbai", TODAY.minusDays(2), 7)));
+
+        assertEquals(2, index.reconcile());
+
+        assertNull(index.get("F1"));
+        assertNull(index.get("OLD"));
+        assertEquals(0, index.routeCount());
+    }
+
+    @Test
+    public void fullSweepRunsAgainOnceItIsDue() {
+        FlightSearchIndex index = new FlightSearchIndex(repo, cache, 0, 5000);
+        index.put(flight("GONE", "Delhi", "Pune", TODAY.plusDays(1), 7));
+        when(repo.findByFlightDateGreaterThanEqual(TODAY)).thenReturn(List.of());
+
+        index.reconcile();
+        index.put(flight("GONE", "Delhi", "Pune", TODAY.plusDays(1), 7));
+        assertEquals(1, index.reconcile());
+
+        assertNull(index.get("GONE"));
+        verify(repo, times(2)).findByFlightDateGreaterThanEqual(TODAY);
+        verify(repo, never()).findByUpdatedAtGreaterThanEqual(any());
+    }
+
+    @Test
+    public void announcedChangeFromAnotherInstanceIsApplied() {
+        index.put(flight("F1", "Delhi", "Mumbai", TODAY.plusDays(1), 7));
+        Flight changed = flight("F1", "Delhi", "Mumbai", TODAY.plusDays(1), 7);
+        changed.setRevision(1);
+        changed.setAvailableSeats(58);
+        when(repo.findById("F1")).thenReturn(Optional.of(changed));
+
+        index.refresh("F1", 1);
+
+        assertEquals(58, index.get("F1").getAvailableSeats());
+        verify(cache, atLeastOnce()).invalidateRoute("DELHI", "MUMBAI");
+    }
+
+    @Test
+    public void announcedChangeAlreadyIndexedIsNotRead() {
+        Flight f = flight("F1", "Delhi", "Mumbai", TODAY.plusDays(1), 7);
+        f.setRevision(4);
+        index.put(f);
+
+        index.refresh("F1", 4);
+
+        verify(repo, never()).findById(any());
+    }
+
+    @Test
+    public void announcedFlightThatIsGoneIsDropped() {
+        index.put(flight("F1", "Delhi", "Mumbai", TODAY.plusDays(1), 7));
+        when(repo.findById("F1")).thenReturn(Optional.empty());
+
+        index.refresh("F1", 1);
+
+        assertNull(index.get("F1"));
+    }
+}
@@ -0,0 +1,227 @@
+package com.flightapp.service;
+
+import com.flightapp.dto.FlightSearchPage;
+import com.flightapp.dto.FlightSummary;
+import com.flightapp.model.Flight;
+import com.flightapp.model.SeatMap;
+import com.flightapp.repository.FlightRepository;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+public class FlightServiceTest {
+
+    private final FlightRepository repo = Mockito.mock(FlightRepository.class);
+    private final FlightSearchIndex index = Mockito.mock(FlightSearchIndex.class);
+    private final FlightSearchCache cache = Mockito.mock(FlightSearchCache.class);
+    private final FlightChangePublisher publisher = Mockito.mock(FlightChangePublisher.class);
+    private final FlightService svc = new FlightService(repo, index, cache, publisher, 100, 100);
+
+    private static Flight flight(int available, int... booked) {
+        Flight f = new Flight();
+        f.setId("F1");
+        f.setFromPlace("Delhi");
+        f.setToPlace("Mumbai");
+        f.setTotalSeats(12);
+        f.setAvailableSeats(available);
+        f.setFlightDate(LocalDate.now().plusDays(1));
+        f.setDepartureTime(Instant.now().plusSeconds(86400));
+        f.setSeatMap(SeatMap.forCapacity(12));
+        for (int seat : booked) {
+            f.getSeatMap().add(seat);
+        }
+        return f;
+    }
+
+    @Test
+    public void reserveSeatsIsASingleAtomicUpdate() {
+        when(repo.findById("F1")).thenReturn(Optional.of(flight(12)));
+        Flight updated = flight(10, 0, 7);
+        when(repo.reserveSeatsAtomically(eq("F1"), eq(Map.of(0, (1L << 0) | (1L << 7))), eq(2), any(), any()))
+                .thenReturn(updated);
+
+        assertSame(updated, svc.reserveSeats("F1", List.of("1A", "2B")));
+
+        verify(repo, never()).save(any());
+        verify(index).put(updated);
+        verify(cache).invalidateRoute("DELHI", "MUMBAI");
+        verify(publisher).flightChanged(updated);
+    }
+
+    @Test
+    public void refusedReservationReportsTheBookedSeat() {
+        when(repo.findById("F1")).thenReturn(Optional.of(flight(11, 1)));
+        when(repo.reserveSeatsAtomically(any(), anyMap(), anyInt(), any(), any())).thenReturn(null);
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> svc.reserveSeats("F1", List.of("1A", "1B")));
+
+        assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+        assertEquals("Seat already booked: 1B", e.getReason());
+        verify(index, never()).put(any());
+    }
+
+    @Test
+    public void refusedReservationWithFreeSeatsMeansNotEnoughLeft() {
+        when(repo.findById("F1")).thenReturn(Optional.of(flight(0)));
+        when(repo.reserveSeatsAtomically(any(), anyMap(), anyInt(), any(), any())).thenReturn(null);
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> svc.reserveSeats("F1", List.of("1A")));
+
+        assertEquals("Not enough seats", e.getReason());
+    }
+
+    @Test
+    public void quarantinedSeatMapRefusesSeatSelection() {
+        Flight quarantined = flight(12);
+        quarantined.setSeatMapInvalid(true);
+        when(repo.findById("F1")).thenReturn(Optional.of(quarantined));
+        when(repo.reserveSeatsAtomically(any(), anyMap(), anyInt(), any(), any())).thenReturn(null);
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> svc.reserveSeats("F1", List.of("1A")));
+
+        assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+        assertEquals("Seat selection is unavailable for this flight", e.getReason());
+    }
+
+    @Test
+    public void seatOutsideTheLayoutIsRejected() {
+        when(repo.findById("F1")).thenReturn(Optional.of(flight(12)));
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> svc.reserveSeats("F1", List.of("3A")));
+
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+        verify(repo, never()).reserveSeatsAtomically(any(), anyMap(), anyInt(), any(), any());
+    }
+
+    @Test
+    public void releaseRetriesWhenSeatsChangeUnderneath() {
+        when(repo.findById("F1")).thenReturn(Optional.of(flight(10, 0, 1)));
+        Flight released = flight(11, 1);
+        when(repo.releaseSeatsAtomically("F1", Map.of(0, 1L), 1)).thenReturn(null).thenReturn(released);
+
+        svc.releaseSeats("F1", List.of("1A"));
+
+        verify(repo, times(2)).releaseSeatsAtomically("F1", Map.of(0, 1L), 1);
+        verify(index).put(released);
+    }
+
+    @Test
+    public void releaseGivesUpAfterRepeatedConflicts() {
+        when(repo.findById("F1")).thenReturn(Optional.of(flight(10, 0)));
+        when(repo.releaseSeatsAtomically(any(), anyMap(), anyInt())).thenReturn(null);
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> svc.releaseSeats("F1", List.of("1A")));
+
+        assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+        verify(repo, never()).save(any());
+    }
+
+    @Test
+    public void releasingUnbookedSeatsIsANoOp() {
+        when(repo.findById("F1")).thenReturn(Optional.of(flight(12)));
+
+        svc.releaseSeats("F1", List.of("1A"));
+
+        verify(repo, never()).releaseSeatsAtomically(any(), anyMap(), anyInt());
+    }
+
+    @Test
+    public void countReleaseNeverExceedsTotalSeats() {
+        when(repo.findById("F1")).thenReturn(Optional.of(flight(11)));
+        when(repo.compareAndSetAvailableSeats("F1", 11, 12)).thenReturn(flight(12));
+
+        svc.release("F1", 5);
+
+        verify(repo).compareAndSetAvailableSeats("F1", 11, 12);
+    }
+
+    @Test
+    public void countReserveRefusedWhenSeatsRunOut() {
+        when(repo.reserveCountAtomically(eq("F1"), eq(3), any())).thenReturn(null);
+        when(repo.findById("F1")).thenReturn(Optional.of(flight(2)));
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> svc.reserve("F1", 3));
+
+        assertEquals("Not enough seats", e.getReason());
+    }
+
+    @Test
+    public void searchPagesContinueFromTheToken() {
+        LocalDate day = LocalDate.now().plusDays(1);
+        List<Flight> flights = List.of(
+                routeFlight("F1", day, 6), routeFlight("F2", day, 7), routeFlight("F3", day, 8));
+        when(index.isLoaded()).thenReturn(true);
+        when(index.search(eq("Delhi"), eq("Mumbai"), eq(null), any())).thenReturn(flights);
+        when(cache.get(any(), any(), any(), anyInt(), any(), any()))
+                .thenAnswer(inv -> inv.<Supplier<FlightSearchPage>>getArgument(5).get());
+
+        FlightSearchPage first = svc.searchPage("Delhi", "Mumbai", null, 2, null);
+        assertEquals(List.of("F1", "F2"), first.getFlights().stream().map(FlightSummary::getId).toList());
+        assertNotNull(first.getNextPageToken());
+
+        FlightSearchPage second = svc.searchPage("Delhi", "Mumbai", null, 2, first.getNextPageToken());
+        assertEquals(List.of("F3"), second.getFlights().stream().map(FlightSummary::getId).toList());
+        assertNull(second.getNextPageToken());
+    }
+
+    @Test
+    public void searchPagesComeFromAKeysetQueryUntilTheIndexIsLoaded() {
+        LocalDate day = LocalDate.now().plusDays(1);
+        when(index.isLoaded()).thenReturn(false);
+        when(cache.get(any(), any(), any(), anyInt(), any(), any()))
+                .thenAnswer(inv -> inv.<Supplier<FlightSearchPage>>getArgument(5).get());
+        when(repo.findSearchPage(eq("DELHI"), eq("MUMBAI"), isNull(), any(), isNull(), eq(3)))
+                .thenReturn(List.of(routeFlight("F1", day, 6), routeFlight("F2", day, 7), routeFlight("F3", day, 8)));
+
+        FlightSearchPage first = svc.searchPage("Delhi", "Mumbai", null, 2, null);
+        assertEquals(List.of("F1", "F2"), first.getFlights().stream().map(FlightSummary::getId).toList());
+
+        svc.searchPage("Delhi", "Mumbai", null, 2, first.getNextPageToken());
+        ArgumentCaptor<Flight> after = ArgumentCaptor.forClass(Flight.class);
+        verify(repo, times(2)).findSearchPage(eq("DELHI"), eq("MUMBAI"), isNull(), any(), after.capture(), eq(3));
+        assertNull(after.getAllValues().get(0));
+        assertEquals("F2", after.getAllValues().get(1).getId());
+        assertEquals(day, after.getAllValues().get(1).getFlightDate());
+        verify(index, never()).search(any(), any(), any(), any());
+    }
+
+    @Test
+    public void pageSizeIsCappedAndMustBePositive() {
+        FlightService capped = new FlightService(repo, index, cache, publisher, 5, 100);
+
+        capped.searchPage("Delhi", "Mumbai", null, 50, null);
+        verify(cache).get(eq("DELHI"), eq("MUMBAI"), isNull(), eq(5), isNull(), any());
+        assertThrows(ResponseStatusException.class, () -> capped.searchPage("Delhi", "Mumbai", null, 0, null));
+    }
+
+    private static Flight routeFlight(String id, LocalDate day, int hour) {
+        Flight f = flight(12);
+        f.setId(id);
+        f.setFlightDate(day);
+        f.setDepartureTime(Instant.parse(day + "T00:00:00Z").plusSeconds(hour * 3600L));
+        return f;
+    }
+}
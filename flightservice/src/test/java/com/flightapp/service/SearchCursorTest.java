@@ -0,0 +1,51 @@
+package com.flightapp.service;
+
+import com.flightapp.model.Flight;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchCursorTest {
+
+    private static Flight flight(String id, LocalDate date, Instant departure) {
+        Flight f = new Flight();
+        f.setId(id);
+        f.setFlightDate(date);
+        f.setDepartureTime(departure);
+        return f;
+    }
+
+    @Test
+    public void tokenRoundTrips() {
+        SearchCursor cursor = new SearchCursor(LocalDate.of(2030, 1, 2), Instant.parse("2030-01-02T07:30:00Z"), "AI|101");
+
+        assertEquals(cursor, SearchCursor.decode(cursor.encode()));
+        SearchCursor noDeparture = new SearchCursor(LocalDate.of(2030, 1, 2), null, "AI101");
+        assertEquals(noDeparture, SearchCursor.decode(noDeparture.encode()));
+    }
+
+    @Test
+    public void nextPageStartsStrictlyAfterTheLastFlight() {
+        LocalDate day = LocalDate.of(2030, 1, 2);
+        Instant seven = Instant.parse("2030-01-02T07:00:00Z");
+        SearchCursor cursor = SearchCursor.after(flight("B", day, seven));
+
+        assertFalse(cursor.precedes(flight("B", day, seven)));
+        assertFalse(cursor.precedes(flight("A", day, seven)));
+        assertTrue(cursor.precedes(flight("C", day, seven)));
+        assertTrue(cursor.precedes(flight("A", day, seven.plusSeconds(60))));
+        assertTrue(cursor.precedes(flight("A", day.plusDays(1), null)));
+    }
+
+    @Test
+    public void malformedTokenIsBadRequest() {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> SearchCursor.decode("not*base64"));
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+    }
+}